@@ -0,0 +1,43 @@
+import com.google.inject.AbstractModule;
+import com.google.inject.multibindings.Multibinder;
+
+import services.BookCache;
+import services.BookCatalogLoader;
+import services.BookChangeFeed;
+import services.BookChangeListener;
+import services.BookEventHub;
+import services.BookStatistics;
+import services.BookStatisticsReconciler;
+import services.CatalogVersion;
+import services.index.BookSearchIndex;
+import services.index.IsbnBloomFilter;
+import services.index.TitleSuggester;
+
+/**
+ * Guice module picked up automatically by Play (class named Module in the
+ * root package).
+ */
+public class Module extends AbstractModule {
+
+    @Override
+    protected void configure() {
+        // In-memory views that follow BookService mutations
+        Multibinder<BookChangeListener> listeners = Multibinder.newSetBinder(binder(), BookChangeListener.class);
+        listeners.addBinding().to(BookSearchIndex.class);
+        listeners.addBinding().to(TitleSuggester.class);
+        listeners.addBinding().to(BookCache.class);
+        listeners.addBinding().to(CatalogVersion.class);
+        listeners.addBinding().to(IsbnBloomFilter.class);
+        listeners.addBinding().to(BookStatistics.class);
+        listeners.addBinding().to(BookEventHub.class);
+
+        // Seeds the views from the database at startup
+        bind(BookCatalogLoader.class).asEagerSingleton();
+
+        // Checks the in-memory statistics against the database now and then
+        bind(BookStatisticsReconciler.class).asEagerSingleton();
+
+        // Compacts old tombstones of the delta sync feed now and then
+        bind(BookChangeFeed.class).asEagerSingleton();
+    }
+}
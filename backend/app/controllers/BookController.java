@@ -2,108 +2,415 @@
 package controllers;
 
 import play.mvc.*;
+import play.http.HttpEntity;
 import play.libs.Json;
+import org.apache.pekko.Done;
+import org.apache.pekko.NotUsed;
+import org.apache.pekko.stream.javadsl.Source;
+import org.apache.pekko.stream.javadsl.StreamConverters;
+import org.apache.pekko.util.ByteString;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import services.BookChangeFeed;
+import services.BookEventHub;
 import services.BookService;
+import services.BookStatistics;
+import services.CatalogVersion;
+import services.DatabaseExecutionContext;
+import controllers.parsers.BookBatchBodyParser;
+import controllers.parsers.BookBulkBodyParser;
+import controllers.parsers.BookCreateBodyParser;
+import controllers.parsers.BookImportBodyParser;
+import controllers.parsers.BookUpdateBodyParser;
+import models.dto.BookBulkResult;
+import models.dto.BookChanges;
 import models.dto.BookDto;
+import models.dto.BookImportSummary;
+import models.dto.BookPage;
+import models.dto.BookSuggestion;
+import models.dto.BookInsertResult;
+import models.request.BookBulkRequest;
 import models.request.BookCreateRequest;
+import models.request.BookFilter;
+import models.request.BookSort;
 import models.request.BookUpdateRequest;
+import models.request.OnConflict;
+import exceptions.BookChangesExpiredException;
+import exceptions.BookConflictException;
 import exceptions.BookNotFoundException;
 import exceptions.BookInvalidRequestException;
+import exceptions.BookVersionRequiredException;
 import utils.ApiResponse;
+import utils.ETags;
+import utils.MediaFormat;
 
 
 @Singleton
 public class BookController extends Controller {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 1000;
+
+    // Query parameters of GET /api/books that make it answer with a page
+    static final List<String> LISTING_PARAMETERS = List.of("status", "yearFrom", "yearTo", "sort");
+
+    static final int DEFAULT_SUGGESTIONS = 10;
+    static final int MAX_SUGGESTIONS = 50;
+
+    static final int DEFAULT_CHANGES = 500;
+    static final int MAX_CHANGES = 1000;
+
+    // How long a streamed response may wait for a slow client before giving up
+    private static final Duration STREAM_WRITE_TIMEOUT = Duration.ofSeconds(30);
+
+    // Catalog streams at once; each holds one of the 10 JDBC connections for as long as its client reads
+    static final int MAX_CATALOG_STREAMS = 2;
+
+    // Comment line sent on an idle event stream, well within proxy and server idle timeouts
+    private static final Duration EVENTS_KEEP_ALIVE = Duration.ofSeconds(15);
+    private static final ByteString EVENTS_HEARTBEAT = ByteString.fromString(":\n\n");
+
     @Inject
     private BookService bookService;
 
+    @Inject
+    private DatabaseExecutionContext dbExecutionContext;
+
+    @Inject
+    private CatalogVersion catalogVersion;
+
+    @Inject
+    private BookStatistics bookStatistics;
+
+    @Inject
+    private BookEventHub bookEventHub;
+
+    @Inject
+    private BookChangeFeed bookChangeFeed;
+
+    private final Semaphore catalogStreams = new Semaphore(MAX_CATALOG_STREAMS);
+
     /**
      * Create a new book
      * POST /api/books
      */
+    @BodyParser.Of(BookCreateBodyParser.class)
     public CompletionStage<Result> create(Http.Request request) {
-        return CompletableFuture.supplyAsync(() -> {
+        return withDatabase(() -> {
             try {
-                JsonNode json = request.body().asJson();
-                if (json == null) {
-                    return Results.badRequest(Json.toJson(ApiResponse.error("Invalid JSON data")));
-                }
-
-                BookCreateRequest createRequest = Json.fromJson(json, BookCreateRequest.class);
+                // Bound and size-checked by BookCreateBodyParser before the action runs
+                BookCreateRequest createRequest = request.body().as(BookCreateRequest.class);
                 BookDto bookDto = bookService.create(createRequest);
                 
-                return Results.ok(Json.toJson(ApiResponse.success(bookDto)));
+                return render(request, OK, ApiResponse.success(bookDto));
+            } catch (BookConflictException e) {
+                return render(request, CONFLICT, ApiResponse.error(e.getMessage()));
+            } catch (BookInvalidRequestException e) {
+                return render(request, BAD_REQUEST, ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return render(request, INTERNAL_SERVER_ERROR, ApiResponse.error("Failed to create book"));
+            }
+        });
+    }
+
+    /**
+     * Create many books at once. Accepts either a JSON array of books or
+     * an object with a "books" array (the shape of data_sample.json).
+     * Books whose ISBN is already stored fail, or with onConflict=skip|update
+     * are left alone or overwritten, so a file can be ingested again.
+     * The body is held in memory, up to "books.batch.max-length" (413
+     * beyond); larger catalogs should use importBooks, which streams.
+     * POST /api/books/batch?onConflict=update
+     */
+    @BodyParser.Of(BookBatchBodyParser.class)
+    public CompletionStage<Result> createBatch(Http.Request request) {
+        return withDatabase(() -> {
+            try {
+                OnConflict onConflict = OnConflict.parse(request.getQueryString("onConflict"));
+                // Read and size-checked by BookBatchBodyParser, in JSON, CBOR or Smile
+                JsonNode json = request.body().as(JsonNode.class);
+                JsonNode books = json != null && json.isObject() ? json.get("books") : json;
+                if (books == null || !books.isArray()) {
+                    return render(request, BAD_REQUEST, ApiResponse.error("Expected an array of books"));
+                }
+
+                List<BookCreateRequest> createRequests = new ArrayList<>(books.size());
+                for (JsonNode book : books) {
+                    createRequests.add(bindCreateRequest(book));
+                }
+
+                List<BookInsertResult> results = bookService.createAll(createRequests, onConflict);
+                long inserted = results.stream()
+                        .filter(result -> result.getOutcome() == BookInsertResult.Outcome.INSERTED)
+                        .count();
+
+                return render(request, OK, ApiResponse.success(
+                        "Inserted " + inserted + " of " + results.size() + " books", results));
             } catch (BookInvalidRequestException e) {
-                return Results.badRequest(Json.toJson(ApiResponse.error(e.getMessage())));
+                return render(request, BAD_REQUEST, ApiResponse.error(e.getMessage()));
             } catch (Exception e) {
-                return Results.internalServerError(Json.toJson(ApiResponse.error("Failed to create book")));
+                return render(request, INTERNAL_SERVER_ERROR, ApiResponse.error("Failed to create books"));
             }
         });
     }
 
     /**
-     * Get a book by ID
+     * Import books from a streamed body without buffering it: NDJSON
+     * (Content-Type: application/x-ndjson), a JSON array of books, or an
+     * object with a "books" array. Books are stored while the body is read.
+     * Takes onConflict like createBatch.
+     * POST /api/books/import?onConflict=skip
+     */
+    @BodyParser.Of(BookImportBodyParser.class)
+    public Result importBooks(Http.Request request) {
+        BookImportSummary summary = request.body().as(BookImportSummary.class);
+        return render(request, OK, ApiResponse.success(
+                "Imported " + summary.getInserted() + " of " + summary.getTotal() + " books", summary));
+    }
+
+    /**
+     * Get a book by ID, or 304 when the If-None-Match tag is still current
      * GET /api/books/:id
      */
-    public CompletionStage<Result> getOne(String id) {
-        return CompletableFuture.supplyAsync(() -> {
+    public CompletionStage<Result> getOne(Http.Request request, String id) {
+        return withDatabase(() -> {
             try {
+                // Usually served from the book cache, so a revalidation does not reach the database
                 BookDto bookDto = bookService.getOne(id);
-                return Results.ok(Json.toJson(ApiResponse.success(bookDto)));
+                String etag = tag(request, ETags.book(bookDto));
+                if (ETags.matches(request, etag)) {
+                    return notModified(etag);
+                }
+                return ETags.tagged(render(request, OK, ApiResponse.success(bookDto)), etag);
             } catch (BookNotFoundException e) {
-                return Results.notFound(Json.toJson(ApiResponse.error(e.getMessage())));
+                return render(request, NOT_FOUND, ApiResponse.error(e.getMessage()));
             } catch (BookInvalidRequestException e) {
-                return Results.badRequest(Json.toJson(ApiResponse.error(e.getMessage())));
+                return render(request, BAD_REQUEST, ApiResponse.error(e.getMessage()));
             } catch (Exception e) {
-                return Results.internalServerError(Json.toJson(ApiResponse.error("Failed to get book")));
+                return render(request, INTERNAL_SERVER_ERROR, ApiResponse.error("Failed to get book"));
             }
         });
     }
 
     /**
-     * Get all books
-     * GET /api/books
+     * Get a book by ISBN-10 or ISBN-13, with or without hyphens. Tagged like getOne.
+     * GET /api/books/isbn/:isbn
      */
-    public CompletionStage<Result> getAll() {
-        return CompletableFuture.supplyAsync(() -> {
+    public CompletionStage<Result> getByIsbn(Http.Request request, String isbn) {
+        return withDatabase(() -> {
             try {
+                BookDto bookDto = bookService.getByIsbn(isbn);
+                String etag = tag(request, ETags.book(bookDto));
+                if (ETags.matches(request, etag)) {
+                    return notModified(etag);
+                }
+                return ETags.tagged(render(request, OK, ApiResponse.success(bookDto)), etag);
+            } catch (BookNotFoundException e) {
+                return render(request, NOT_FOUND, ApiResponse.error(e.getMessage()));
+            } catch (BookInvalidRequestException e) {
+                return render(request, BAD_REQUEST, ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return render(request, INTERNAL_SERVER_ERROR, ApiResponse.error("Failed to get book"));
+            }
+        });
+    }
+
+    /**
+     * Get all books, or one page of them when limit or after is given.
+     * Filtering by status and an inclusive copyright year range, or sorting
+     * (id, title or copyrightYear, "-" for descending), also returns a page.
+     * Answers 304 without reading anything when the catalog is unchanged.
+     * GET /api/books?status=PENDING&yearFrom=2020&yearTo=2025&sort=-copyrightYear&limit=50&after=cursor
+     */
+    public CompletionStage<Result> getAll(Http.Request request) {
+        // Taken before the rows are read, so the tag can only be older than the data
+        String etag = tag(request, ETags.catalog(catalogVersion.current()));
+        if (ETags.matches(request, etag)) {
+            return CompletableFuture.completedFuture(notModified(etag));
+        }
+        return withDatabase(() -> {
+            try {
+                if (isPaged(request) || LISTING_PARAMETERS.stream().anyMatch(request.queryString()::containsKey)) {
+                    BookFilter filter = new BookFilter(request.getQueryString("status"),
+                            parseYear(request, "yearFrom"), parseYear(request, "yearTo"));
+                    BookSort sort = BookSort.parse(request.getQueryString("sort"));
+                    BookPage page = bookService.getPage(filter, sort, request.getQueryString("after"), parseLimit(request));
+                    return ETags.tagged(render(request, OK, ApiResponse.success(page)), etag);
+                }
+
                 List<BookDto> books = bookService.getAll();
-                return Results.ok(Json.toJson(ApiResponse.success(books)));
+                return ETags.tagged(render(request, OK, ApiResponse.success(books)), etag);
+            } catch (BookInvalidRequestException e) {
+                return render(request, BAD_REQUEST, ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return render(request, INTERNAL_SERVER_ERROR, ApiResponse.error("Failed to get books"));
+            }
+        });
+    }
+
+    /**
+     * Stream all books as a chunked response. Rows are serialized as they are
+     * read, so neither memory nor time to first byte grows with the catalog.
+     *
+     * The rows are read in one transaction on the database dispatcher, at the
+     * pace the client reads: a stream holds a JDBC connection and a database
+     * thread until the download ends, or until the client has not taken a
+     * write for STREAM_WRITE_TIMEOUT. At most MAX_CATALOG_STREAMS run at once
+     * so downloads cannot take over the pool; further ones get 503. A failure
+     * part way through aborts the response instead of ending it as if the
+     * document were complete.
+     * GET /api/books/stream
+     */
+    public Result streamAll() {
+        if (dbExecutionContext.isSaturated() || catalogStreams.availablePermits() == 0) {
+            return serviceUnavailable();
+        }
+        // Completed once the writer is done; a failure there fails the body after what was written
+        CompletableFuture<Done> written = new CompletableFuture<>();
+        Source<ByteString, NotUsed> body = StreamConverters.asOutputStream(STREAM_WRITE_TIMEOUT)
+                .mapMaterializedValue(out -> {
+                    if (!catalogStreams.tryAcquire()) {
+                        // Taken since the check above; fail the body rather than wait for a permit
+                        out.close();
+                        written.completeExceptionally(new RejectedExecutionException("Too many catalog streams"));
+                        return NotUsed.getInstance();
+                    }
+                    try {
+                        CompletableFuture.runAsync(() -> writeCatalog(out), dbExecutionContext)
+                                .whenComplete((ignored, error) -> {
+                                    catalogStreams.release();
+                                    if (error == null) {
+                                        written.complete(Done.getInstance());
+                                    } else {
+                                        written.completeExceptionally(error);
+                                    }
+                                });
+                    } catch (RejectedExecutionException e) {
+                        // Filled up since the check above; fail the body rather than hang
+                        play.Logger.error("Database queue is full, catalog stream aborted");
+                        catalogStreams.release();
+                        out.close();
+                        written.completeExceptionally(e);
+                    }
+                    return NotUsed.getInstance();
+                })
+                // The output stream ends the same way whether the writer finished or failed
+                .concat(Source.completionStage(written).flatMapConcat(done -> Source.<ByteString>empty()));
+        return Results.ok().chunked(body).as(Http.MimeTypes.JSON);
+    }
+
+    /**
+     * Books changed and ids deleted since a sync token, for clients that keep
+     * a copy of the catalog; without a token all books. Paged by limit,
+     * hasMore asks for another call with the next token. 410 once the token
+     * is older than the tombstones kept.
+     * GET /api/books/changes?since=token&limit=n
+     */
+    public CompletionStage<Result> changes(Http.Request request) {
+        return withDatabase(() -> {
+            try {
+                int limit = parseLimit(request, DEFAULT_CHANGES, MAX_CHANGES);
+                BookChanges changes = bookChangeFeed.changesSince(request.getQueryString("since"), limit);
+                return render(request, OK, ApiResponse.success(changes));
+            } catch (BookChangesExpiredException e) {
+                return render(request, GONE, ApiResponse.error(e.getMessage()));
+            } catch (BookInvalidRequestException e) {
+                return render(request, BAD_REQUEST, ApiResponse.error(e.getMessage()));
             } catch (Exception e) {
-                return Results.internalServerError(Json.toJson(ApiResponse.error("Failed to get books")));
+                return render(request, INTERNAL_SERVER_ERROR, ApiResponse.error("Failed to get changes"));
             }
         });
     }
 
     /**
-     * Update an existing book
+     * Server-sent events for every committed change: "created" and "updated"
+     * carry the book, "deleted" only its id. A client that falls too far
+     * behind gets a final "reset" event and should catch up through
+     * GET /api/books/changes before subscribing again.
+     * GET /api/books/events
+     */
+    public Result events() {
+        if (bookEventHub.isFull()) {
+            return serviceUnavailable();
+        }
+        Source<ByteString, NotUsed> body = bookEventHub.subscribe()
+                .keepAlive(EVENTS_KEEP_ALIVE, () -> EVENTS_HEARTBEAT);
+        return Results.ok().chunked(body).as(Http.MimeTypes.EVENT_STREAM).withHeader(CACHE_CONTROL, "no-cache");
+    }
+
+    /**
+     * Book counts per status and copyright year, served from memory
+     * GET /api/books/stats
+     */
+    public Result stats(Http.Request request) {
+        return render(request, OK, ApiResponse.success(bookStatistics.snapshot()));
+    }
+
+    /**
+     * Title suggestions for a typeahead, served from memory on the calling
+     * thread, so they keep working while the database dispatcher is saturated
+     * GET /api/books/suggest?prefix=arch&limit=10
+     */
+    public Result suggest(Http.Request request) {
+        try {
+            String prefix = request.getQueryString("prefix");
+            if (prefix == null || prefix.trim().isEmpty()) {
+                return render(request, BAD_REQUEST, ApiResponse.error("Prefix parameter is required"));
+            }
+
+            int limit = parseLimit(request, DEFAULT_SUGGESTIONS, MAX_SUGGESTIONS);
+            List<BookSuggestion> suggestions = bookService.suggest(prefix, limit);
+            return render(request, OK, ApiResponse.success(suggestions));
+        } catch (BookInvalidRequestException e) {
+            return render(request, BAD_REQUEST, ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return render(request, INTERNAL_SERVER_ERROR, ApiResponse.error("Failed to suggest books"));
+        }
+    }
+
+    /**
+     * Update an existing book. Only the fields present are changed. The
+     * version last read is required, in the body or as an If-Match tag of
+     * the book: 428 without one, 409 Conflict when the book has changed since.
      * PATCH /api/books
      */
+    @BodyParser.Of(BookUpdateBodyParser.class)
     public CompletionStage<Result> update(Http.Request request) {
-        return CompletableFuture.supplyAsync(() -> {
+        return withDatabase(() -> {
             try {
-                JsonNode json = request.body().asJson();
-                if (json == null) {
-                    return Results.badRequest(Json.toJson(ApiResponse.error("Invalid JSON data")));
+                BookUpdateRequest updateRequest = request.body().as(BookUpdateRequest.class);
+                if (updateRequest.getVersion() == null && updateRequest.getId() != null) {
+                    updateRequest.setVersion(ETags.versionOf(request, updateRequest.getId()));
                 }
-
-                BookUpdateRequest updateRequest = Json.fromJson(json, BookUpdateRequest.class);
                 BookDto bookDto = bookService.update(updateRequest);
                 
-                return Results.ok(Json.toJson(ApiResponse.success(bookDto)));
+                return render(request, OK, ApiResponse.success(bookDto));
             } catch (BookNotFoundException e) {
-                return Results.notFound(Json.toJson(ApiResponse.error(e.getMessage())));
+                return render(request, NOT_FOUND, ApiResponse.error(e.getMessage()));
+            } catch (BookConflictException e) {
+                return render(request, CONFLICT, ApiResponse.error(e.getMessage()));
+            } catch (BookVersionRequiredException e) {
+                return render(request, PRECONDITION_REQUIRED, ApiResponse.error(e.getMessage()));
             } catch (BookInvalidRequestException e) {
-                return Results.badRequest(Json.toJson(ApiResponse.error(e.getMessage())));
+                return render(request, BAD_REQUEST, ApiResponse.error(e.getMessage()));
             } catch (Exception e) {
-                return Results.internalServerError(Json.toJson(ApiResponse.error("Failed to update book")));
+                return render(request, INTERNAL_SERVER_ERROR, ApiResponse.error("Failed to update book"));
             }
         });
     }
@@ -112,38 +419,209 @@ public class BookController extends Controller {
      * Delete a book by ID
      * DELETE /api/books/:id
      */
-    public CompletionStage<Result> delete(String id) {
-        return CompletableFuture.supplyAsync(() -> {
+    public CompletionStage<Result> delete(Http.Request request, String id) {
+        return withDatabase(() -> {
             try {
                 bookService.delete(id);
-                return Results.ok(Json.toJson(ApiResponse.success("Book deleted successfully")));
+                return render(request, OK, ApiResponse.success("Book deleted successfully"));
             } catch (BookNotFoundException e) {
-                return Results.notFound(Json.toJson(ApiResponse.error(e.getMessage())));
+                return render(request, NOT_FOUND, ApiResponse.error(e.getMessage()));
             } catch (BookInvalidRequestException e) {
-                return Results.badRequest(Json.toJson(ApiResponse.error(e.getMessage())));
+                return render(request, BAD_REQUEST, ApiResponse.error(e.getMessage()));
             } catch (Exception e) {
-                return Results.internalServerError(Json.toJson(ApiResponse.error("Failed to delete book")));
+                return render(request, INTERNAL_SERVER_ERROR, ApiResponse.error("Failed to delete book"));
             }
         });
     }
 
     /**
-     * Search books by title or subtitle
-     * GET /api/books/search?query=searchTerm
+     * Delete the books given by id or matching a filter, in chunks. Ids that
+     * matched no book are reported back as missing.
+     * POST /api/books/bulk-delete
+     * Body: {"ids": [1, 2]} or {"filter": {"status": "PENDING", "maxCopyrightYear": 1999}}
+     */
+    @BodyParser.Of(BookBulkBodyParser.class)
+    public CompletionStage<Result> bulkDelete(Http.Request request) {
+        return withDatabase(() -> {
+            try {
+                // Bound and size-checked by BookBulkBodyParser before the action runs
+                BookBulkResult result = bookService.bulkDelete(request.body().as(BookBulkRequest.class));
+                return render(request, OK, ApiResponse.success(result));
+            } catch (BookInvalidRequestException e) {
+                return render(request, BAD_REQUEST, ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return render(request, INTERNAL_SERVER_ERROR, ApiResponse.error("Failed to delete books"));
+            }
+        });
+    }
+
+    /**
+     * Set the status of the books given by id or matching a filter, in chunks.
+     * POST /api/books/bulk-status
+     * Body: {"ids": [1, 2], "status": "APPROVED"} or {"filter": {...}, "status": "APPROVED"}
+     */
+    @BodyParser.Of(BookBulkBodyParser.class)
+    public CompletionStage<Result> bulkStatus(Http.Request request) {
+        return withDatabase(() -> {
+            try {
+                // Bound and size-checked by BookBulkBodyParser before the action runs
+                BookBulkResult result = bookService.bulkUpdateStatus(request.body().as(BookBulkRequest.class));
+                return render(request, OK, ApiResponse.success(result));
+            } catch (BookInvalidRequestException e) {
+                return render(request, BAD_REQUEST, ApiResponse.error(e.getMessage()));
+            } catch (Exception e) {
+                return render(request, INTERNAL_SERVER_ERROR, ApiResponse.error("Failed to update books"));
+            }
+        });
+    }
+
+    /**
+     * Search books by title or subtitle, paginated like getAll when limit or after is given.
+     * Conditional requests are answered like getAll.
+     * GET /api/books/search?query=searchTerm&limit=50&after=cursor
      */
     public CompletionStage<Result> search(Http.Request request) {
-        return CompletableFuture.supplyAsync(() -> {
+        String etag = tag(request, ETags.catalog(catalogVersion.current()));
+        if (ETags.matches(request, etag)) {
+            return CompletableFuture.completedFuture(notModified(etag));
+        }
+        return withDatabase(() -> {
             try {
                 String query = request.getQueryString("query");
                 if (query == null || query.trim().isEmpty()) {
-                    return Results.badRequest(Json.toJson(ApiResponse.error("Query parameter is required")));
+                    return render(request, BAD_REQUEST, ApiResponse.error("Query parameter is required"));
+                }
+
+                if (isPaged(request)) {
+                    BookPage page = bookService.searchPage(query, request.getQueryString("after"), parseLimit(request));
+                    return ETags.tagged(render(request, OK, ApiResponse.success(page)), etag);
                 }
 
                 List<BookDto> books = bookService.search(query);
-                return Results.ok(Json.toJson(ApiResponse.success(books)));
+                return ETags.tagged(render(request, OK, ApiResponse.success(books)), etag);
+            } catch (BookInvalidRequestException e) {
+                return render(request, BAD_REQUEST, ApiResponse.error(e.getMessage()));
             } catch (Exception e) {
-                return Results.internalServerError(Json.toJson(ApiResponse.error("Failed to search books")));
+                return render(request, INTERNAL_SERVER_ERROR, ApiResponse.error("Failed to search books"));
             }
         });
     }
-}
\ No newline at end of file
+
+    // Writes the same envelope as ApiResponse.success(books), one book at a time, and closes out either way
+    private void writeCatalog(OutputStream out) {
+        ObjectWriter writer = MediaFormat.JSON.mapper().writerFor(BookDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = MediaFormat.JSON.mapper().getFactory().createGenerator(out)) {
+            // On failure leave the document truncated rather than closing it as if it were complete
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+
+            generator.writeStartObject();
+            generator.writeBooleanField("success", true);
+            generator.writeStringField("message", "Success");
+            generator.writeArrayFieldStart("data");
+            bookService.scrollAll(book -> {
+                try {
+                    writer.writeValue(generator, book);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            play.Logger.error("Failed to stream books", e);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            play.Logger.error("Failed to stream books", e);
+            throw e;
+        }
+    }
+
+    /**
+     * The response in the format the client accepts: JSON, CBOR or Smile.
+     */
+    private static Result render(Http.Request request, int status, ApiResponse<?> response) {
+        return write(status, MediaFormat.negotiate(request), response).withHeader(VARY, ACCEPT);
+    }
+
+    private static Result json(int status, ApiResponse<?> response) {
+        return write(status, MediaFormat.JSON, response);
+    }
+
+    // Serialized straight from the objects, without building a JsonNode tree first
+    private static Result write(int status, MediaFormat format, ApiResponse<?> response) {
+        return Results.status(status).sendEntity(
+                new HttpEntity.Strict(format.write(response), Optional.of(format.getMimeType())));
+    }
+
+    // Each format is a representation of its own, so it gets a tag of its own
+    private static String tag(Http.Request request, String etag) {
+        return ETags.forFormat(etag, MediaFormat.negotiate(request));
+    }
+
+    private static Result notModified(String etag) {
+        return ETags.notModified(etag).withHeader(VARY, ACCEPT);
+    }
+
+    // Runs a blocking action on the database dispatcher, or answers 503 when its queue is full
+    private CompletionStage<Result> withDatabase(Supplier<Result> action) {
+        try {
+            return CompletableFuture.supplyAsync(action, dbExecutionContext);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(serviceUnavailable());
+        }
+    }
+
+    private static Result serviceUnavailable() {
+        return json(SERVICE_UNAVAILABLE, ApiResponse.error("Server is busy, please retry"))
+                .withHeader(RETRY_AFTER, "1");
+    }
+
+    private static boolean isPaged(Http.Request request) {
+        return request.queryString().containsKey("limit") || request.queryString().containsKey("after");
+    }
+
+    private static Integer parseYear(Http.Request request, String name) {
+        String year = request.getQueryString(name);
+        if (year == null || year.isEmpty()) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(year);
+        } catch (NumberFormatException e) {
+            throw new BookInvalidRequestException("Invalid " + name);
+        }
+    }
+
+    private static int parseLimit(Http.Request request) {
+        return parseLimit(request, DEFAULT_PAGE_SIZE, MAX_PAGE_SIZE);
+    }
+
+    private static int parseLimit(Http.Request request, int defaultLimit, int maxLimit) {
+        String limit = request.getQueryString("limit");
+        if (limit == null || limit.isEmpty()) {
+            return defaultLimit;
+        }
+        try {
+            int value = Integer.parseInt(limit);
+            if (value < 1) {
+                throw new BookInvalidRequestException("Limit must be positive");
+            }
+            return Math.min(value, maxLimit);
+        } catch (NumberFormatException e) {
+            throw new BookInvalidRequestException("Invalid limit");
+        }
+    }
+
+    // Binds a single batch entry; malformed entries become null so the service reports them per item
+    private static BookCreateRequest bindCreateRequest(JsonNode json) {
+        if (json == null || !json.isObject()) {
+            return null;
+        }
+        try {
+            return Json.fromJson(json, BookCreateRequest.class);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package controllers;
+
+import play.mvc.*;
+import play.libs.Json;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import services.BookCache;
+import services.BookEventHub;
+import services.DatabaseExecutionContext;
+import services.index.IsbnBloomFilter;
+import utils.ApiResponse;
+
+/**
+ * Exposes runtime counters of the book service for dashboards.
+ */
+@Singleton
+public class MetricsController extends Controller {
+
+    @Inject
+    private BookCache bookCache;
+
+    @Inject
+    private DatabaseExecutionContext dbExecutionContext;
+
+    @Inject
+    private IsbnBloomFilter isbnFilter;
+
+    @Inject
+    private BookEventHub bookEventHub;
+
+    /**
+     * Get current metrics
+     * GET /api/metrics
+     */
+    public Result metrics() {
+        ObjectNode metrics = Json.newObject();
+        metrics.set("bookCache", Json.toJson(bookCache.metrics()));
+        metrics.set("database", Json.toJson(dbExecutionContext.metrics()));
+        metrics.set("isbnFilter", Json.toJson(isbnFilter.metrics()));
+        metrics.set("events", Json.toJson(bookEventHub.metrics()));
+        return Results.ok(Json.toJson(ApiResponse.success(metrics)));
+    }
+}
@@ -0,0 +1,25 @@
+package controllers.parsers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.typesafe.config.Config;
+
+import javax.inject.Inject;
+import java.util.concurrent.Executor;
+
+/**
+ * Reads the body of POST /api/books/batch as a tree, up to
+ * "books.batch.max-length" bytes, so the action can report each entry on
+ * its own. The whole body is held in memory; larger catalogs go through
+ * the streaming POST /api/books/import.
+ */
+public class BookBatchBodyParser extends TypedBodyParser<JsonNode> {
+
+    @Inject
+    public BookBatchBodyParser(Config config, Executor executor) {
+        this(config.getBytes("books.batch.max-length"), executor);
+    }
+
+    public BookBatchBodyParser(long maxLength, Executor executor) {
+        super(JsonNode.class, maxLength, executor);
+    }
+}
@@ -0,0 +1,24 @@
+package controllers.parsers;
+
+import com.typesafe.config.Config;
+
+import javax.inject.Inject;
+import java.util.concurrent.Executor;
+
+import models.request.BookBulkRequest;
+
+/**
+ * Binds the body of POST /api/books/bulk-delete and bulk-status into a
+ * {@link BookBulkRequest}, up to "books.bulk.max-length" bytes.
+ */
+public class BookBulkBodyParser extends TypedBodyParser<BookBulkRequest> {
+
+    @Inject
+    public BookBulkBodyParser(Config config, Executor executor) {
+        this(config.getBytes("books.bulk.max-length"), executor);
+    }
+
+    public BookBulkBodyParser(long maxLength, Executor executor) {
+        super(BookBulkRequest.class, maxLength, executor);
+    }
+}
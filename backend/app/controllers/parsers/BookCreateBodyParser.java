@@ -0,0 +1,24 @@
+package controllers.parsers;
+
+import com.typesafe.config.Config;
+
+import javax.inject.Inject;
+import java.util.concurrent.Executor;
+
+import models.request.BookCreateRequest;
+
+/**
+ * Binds the body of POST /api/books into a {@link BookCreateRequest}, up to
+ * "books.request.max-length" bytes.
+ */
+public class BookCreateBodyParser extends TypedBodyParser<BookCreateRequest> {
+
+    @Inject
+    public BookCreateBodyParser(Config config, Executor executor) {
+        this(config.getBytes("books.request.max-length"), executor);
+    }
+
+    public BookCreateBodyParser(long maxLength, Executor executor) {
+        super(BookCreateRequest.class, maxLength, executor);
+    }
+}
@@ -0,0 +1,148 @@
+package controllers.parsers;
+
+import org.apache.pekko.stream.javadsl.Flow;
+import org.apache.pekko.stream.javadsl.Keep;
+import org.apache.pekko.stream.javadsl.Sink;
+import org.apache.pekko.stream.javadsl.Source;
+import org.apache.pekko.util.ByteString;
+import com.typesafe.config.Config;
+import play.libs.F;
+import play.libs.Json;
+import play.libs.streams.Accumulator;
+import play.mvc.BodyParser;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.mvc.Results;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import exceptions.BookEntryTooLargeException;
+import exceptions.BookInvalidRequestException;
+import models.dto.BookImportSummary;
+import models.request.BookCreateRequest;
+import models.request.OnConflict;
+import services.BookService;
+import services.DatabaseExecutionContext;
+import utils.ApiResponse;
+import utils.BookJsonStreamDecoder;
+
+/**
+ * Streams an import body straight into {@link BookService#createAll} without
+ * buffering it. Books are decoded as bytes arrive, grouped into chunks and
+ * inserted one chunk at a time; the next bytes are only pulled once the
+ * previous chunk is stored, so memory stays flat whatever the body size.
+ * A single book may take up to "books.request.max-length" bytes, like the
+ * body of POST /api/books.
+ *
+ * Chunks stored before a failure stay stored, so an error response carries
+ * the summary of those chunks for the client to resume from.
+ */
+public class BookImportBodyParser implements BodyParser<BookImportSummary> {
+
+    static final int CHUNK_SIZE = 1000;
+
+    private static final Set<String> NDJSON_TYPES = Set.of(
+            "application/x-ndjson", "application/ndjson", "application/jsonl", "application/x-jsonlines");
+
+    private final BookService bookService;
+    private final DatabaseExecutionContext dbExecutionContext;
+    private final long maxEntryLength;
+    private final Executor executor;
+
+    @Inject
+    public BookImportBodyParser(BookService bookService, DatabaseExecutionContext dbExecutionContext,
+                                Config config, Executor executor) {
+        this(bookService, dbExecutionContext, config.getBytes("books.request.max-length"), executor);
+    }
+
+    public BookImportBodyParser(BookService bookService, DatabaseExecutionContext dbExecutionContext,
+                                long maxEntryLength, Executor executor) {
+        this.bookService = bookService;
+        this.dbExecutionContext = dbExecutionContext;
+        this.maxEntryLength = maxEntryLength;
+        this.executor = executor;
+    }
+
+    @Override
+    public Accumulator<ByteString, F.Either<Result, BookImportSummary>> apply(Http.RequestHeader request) {
+        boolean ndjson = request.contentType().map(NDJSON_TYPES::contains).orElse(false);
+        OnConflict onConflict;
+        try {
+            onConflict = OnConflict.parse(request.getQueryString("onConflict"));
+        } catch (BookInvalidRequestException e) {
+            return Accumulator.done(F.Either.<Result, BookImportSummary>Left(toResult(e, null)));
+        }
+
+        // Only touched by one chunk at a time, see mapAsync(1)
+        BookImportSummary summary = new BookImportSummary();
+        // The chunk being stored, so that a failure is answered only once that chunk is counted or failed too
+        AtomicReference<CompletionStage<BookImportSummary>> storing = new AtomicReference<>(
+                CompletableFuture.completedFuture(summary));
+
+        Sink<ByteString, CompletionStage<BookImportSummary>> sink = Flow.<ByteString>create()
+                .map(Optional::of)
+                // Empty marker so the decoder can check that the document was complete
+                .concat(Source.single(Optional.<ByteString>empty()))
+                .<Optional<BookCreateRequest>>statefulMapConcat(() -> {
+                    BookJsonStreamDecoder decoder = new BookJsonStreamDecoder(Json.mapper(), ndjson, maxEntryLength);
+                    return bytes -> wrap(bytes.isPresent() ? decoder.feed(bytes.get().toArray()) : decoder.finish());
+                })
+                .grouped(CHUNK_SIZE)
+                .mapAsync(1, chunk -> {
+                    CompletionStage<BookImportSummary> stored = CompletableFuture.supplyAsync(
+                            () -> summary.add(bookService.createAll(unwrap(chunk), onConflict)), dbExecutionContext);
+                    storing.set(stored);
+                    return stored;
+                })
+                .toMat(Sink.ignore(), Keep.right())
+                .mapMaterializedValue(done -> done.thenApply(ignored -> summary));
+
+        return Accumulator.fromSink(sink)
+                .map(imported -> F.Either.<Result, BookImportSummary>Right(imported), executor)
+                .recoverWith(error -> storing.get().handle((ignored, chunkError) ->
+                        F.Either.<Result, BookImportSummary>Left(toResult(error, summary))), executor);
+    }
+
+    // Streams cannot carry nulls, so malformed entries travel as empty optionals
+    private static List<Optional<BookCreateRequest>> wrap(List<BookCreateRequest> entries) {
+        return entries.stream().map(Optional::ofNullable).collect(Collectors.toList());
+    }
+
+    private static List<BookCreateRequest> unwrap(List<Optional<BookCreateRequest>> chunk) {
+        List<BookCreateRequest> requests = new ArrayList<>(chunk.size());
+        for (Optional<BookCreateRequest> entry : chunk) {
+            requests.add(entry.orElse(null));
+        }
+        return requests;
+    }
+
+    // The summary counts what was stored before the error; null when nothing was read
+    private static Result toResult(Throwable error, BookImportSummary summary) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof BookInvalidRequestException) {
+            return Results.badRequest(Json.toJson(ApiResponse.error(cause.getMessage(), summary)));
+        }
+        if (cause instanceof BookEntryTooLargeException) {
+            return Results.status(Http.Status.REQUEST_ENTITY_TOO_LARGE,
+                    Json.toJson(ApiResponse.error(cause.getMessage(), summary)));
+        }
+        if (cause instanceof RejectedExecutionException) {
+            return Results.status(Http.Status.SERVICE_UNAVAILABLE,
+                    Json.toJson(ApiResponse.error("Server is busy, please retry", summary)))
+                    .withHeader(Http.HeaderNames.RETRY_AFTER, "1");
+        }
+        play.Logger.error("Book import failed", cause);
+        return Results.internalServerError(Json.toJson(ApiResponse.error("Failed to import books", summary)));
+    }
+}
@@ -0,0 +1,24 @@
+package controllers.parsers;
+
+import com.typesafe.config.Config;
+
+import javax.inject.Inject;
+import java.util.concurrent.Executor;
+
+import models.request.BookUpdateRequest;
+
+/**
+ * Binds the body of PATCH /api/books into a {@link BookUpdateRequest}, up to
+ * "books.request.max-length" bytes.
+ */
+public class BookUpdateBodyParser extends TypedBodyParser<BookUpdateRequest> {
+
+    @Inject
+    public BookUpdateBodyParser(Config config, Executor executor) {
+        this(config.getBytes("books.request.max-length"), executor);
+    }
+
+    public BookUpdateBodyParser(long maxLength, Executor executor) {
+        super(BookUpdateRequest.class, maxLength, executor);
+    }
+}
@@ -0,0 +1,86 @@
+package controllers.parsers;
+
+import org.apache.pekko.stream.StreamLimitReachedException;
+import org.apache.pekko.stream.javadsl.Flow;
+import org.apache.pekko.stream.javadsl.Keep;
+import org.apache.pekko.stream.javadsl.Sink;
+import org.apache.pekko.util.ByteString;
+import play.libs.F;
+import play.libs.Json;
+import play.libs.streams.Accumulator;
+import play.mvc.BodyParser;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.mvc.Results;
+
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+
+import exceptions.BookInvalidRequestException;
+import utils.ApiResponse;
+import utils.MediaFormat;
+
+/**
+ * Binds a request body of at most maxLength bytes straight into a request
+ * object, in JSON or, by Content-Type, CBOR or Smile (see MediaFormat).
+ * A declared Content-Length above the limit is refused with 413 before any
+ * byte is read, a longer body as soon as the limit is passed, and a body
+ * that does not bind with 400; the action only runs with a bound object.
+ */
+public abstract class TypedBodyParser<T> implements BodyParser<T> {
+
+    private final Class<T> type;
+    private final long maxLength;
+    private final Executor executor;
+
+    protected TypedBodyParser(Class<T> type, long maxLength, Executor executor) {
+        this.type = type;
+        this.maxLength = maxLength;
+        this.executor = executor;
+    }
+
+    @Override
+    public Accumulator<ByteString, F.Either<Result, T>> apply(Http.RequestHeader request) {
+        Optional<Long> contentLength = request.header(Http.HeaderNames.CONTENT_LENGTH).flatMap(TypedBodyParser::parseLength);
+        if (contentLength.map(length -> length > maxLength).orElse(false)) {
+            return Accumulator.done(F.Either.<Result, T>Left(tooLarge()));
+        }
+        MediaFormat format = MediaFormat.ofBody(request);
+
+        // Chunks are only linked together, not copied, until the reader consumes them
+        Sink<ByteString, CompletionStage<ByteString>> sink = Flow.<ByteString>create()
+                .limitWeighted(maxLength, bytes -> (long) bytes.size())
+                .toMat(Sink.fold(ByteString.emptyByteString(), ByteString::concat), Keep.right());
+
+        return Accumulator.fromSink(sink)
+                .map(body -> F.Either.<Result, T>Right(format.read(body, type)), executor)
+                .recover(error -> F.Either.<Result, T>Left(toResult(error)), executor);
+    }
+
+    private Result toResult(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof StreamLimitReachedException) {
+            return tooLarge();
+        }
+        if (cause instanceof BookInvalidRequestException) {
+            return Results.badRequest(Json.toJson(ApiResponse.error(cause.getMessage())));
+        }
+        play.Logger.error("Failed to read request body", cause);
+        return Results.internalServerError(Json.toJson(ApiResponse.error("Failed to read request body")));
+    }
+
+    private Result tooLarge() {
+        return Results.status(Http.Status.REQUEST_ENTITY_TOO_LARGE,
+                Json.toJson(ApiResponse.error("Request body exceeds " + maxLength + " bytes")));
+    }
+
+    private static Optional<Long> parseLength(String value) {
+        try {
+            return Optional.of(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
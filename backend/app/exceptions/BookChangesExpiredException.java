@@ -0,0 +1,8 @@
+package exceptions;
+
+public class BookChangesExpiredException extends RuntimeException {
+    
+    public BookChangesExpiredException(String message) {
+        super(message);
+    }
+}
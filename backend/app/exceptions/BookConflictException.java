@@ -0,0 +1,12 @@
+package exceptions;
+
+public class BookConflictException extends RuntimeException {
+    
+    public BookConflictException(String message) {
+        super(message);
+    }
+    
+    public BookConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+} 
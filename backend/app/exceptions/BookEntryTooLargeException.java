@@ -0,0 +1,8 @@
+package exceptions;
+
+public class BookEntryTooLargeException extends RuntimeException {
+    
+    public BookEntryTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package exceptions;
+
+public class BookVersionRequiredException extends RuntimeException {
+    
+    public BookVersionRequiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,182 @@
+package filters;
+
+import org.apache.pekko.stream.Materializer;
+import org.apache.pekko.stream.javadsl.Compression;
+import org.apache.pekko.stream.javadsl.Flow;
+import org.apache.pekko.util.ByteString;
+import org.apache.pekko.NotUsed;
+import com.typesafe.config.Config;
+import play.http.HttpEntity;
+import play.mvc.Filter;
+import play.mvc.Http;
+import play.mvc.Result;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import utils.ETags;
+
+/**
+ * Compresses text and JSON responses with gzip or deflate, whichever the
+ * request's Accept-Encoding prefers (gzip on a tie).
+ *
+ * Buffered bodies smaller than "compression.threshold" go out as they are,
+ * larger ones are encoded with a pooled Deflater. Streamed and chunked
+ * bodies (such as /api/books/stream) are encoded on the fly unless they
+ * declare a length below the threshold. Event streams are left alone, as
+ * compression would hold events back until a block fills. A compressed
+ * response carries the coding in its ETag, so the tag stays specific to
+ * the bytes sent; ETags.matches accepts either form back.
+ *
+ * A 304 has no body to measure, yet must carry the tag its 200 would
+ * (RFC 9110 15.4.5). So whether a tagged response is coded depends only
+ * on its format, which the tag names (ETags.formatOf): tagged bodies are
+ * compressed whatever their size, and a 304 gets the coded tag exactly
+ * when its format is compressible.
+ *
+ * Brotli is not offered: no pure-Java encoder is available.
+ */
+@Singleton
+public class CompressionFilter extends Filter {
+
+    private final Compressor compressor;
+    private final long threshold;
+
+    @Inject
+    public CompressionFilter(Materializer materializer, Config config) {
+        this(materializer, new Compressor(config.getInt("compression.level"), config.getInt("compression.pool-size")),
+                config.getBytes("compression.threshold"));
+    }
+
+    public CompressionFilter(Materializer materializer, Compressor compressor, long threshold) {
+        super(materializer);
+        this.compressor = compressor;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public CompletionStage<Result> apply(Function<Http.RequestHeader, CompletionStage<Result>> next,
+                                         Http.RequestHeader request) {
+        String coding = request.header(Http.HeaderNames.ACCEPT_ENCODING)
+                .map(CompressionFilter::negotiate)
+                .orElse(null);
+        boolean head = "HEAD".equals(request.method());
+        return next.apply(request).thenApply(result -> head ? result : encode(result, coding));
+    }
+
+    /**
+     * The coding to use for an Accept-Encoding header, or null for none.
+     */
+    static String negotiate(String acceptEncoding) {
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String name = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equals(Compressor.GZIP) || name.equals("x-gzip")) {
+                gzip = q;
+            } else if (name.equals(Compressor.DEFLATE)) {
+                deflate = q;
+            } else if (name.equals("*")) {
+                any = q;
+            }
+        }
+        // A coding that is not listed is acceptable only through "*"
+        gzip = gzip < 0 ? any : gzip;
+        deflate = deflate < 0 ? any : deflate;
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? Compressor.GZIP : Compressor.DEFLATE;
+    }
+
+    private Result encode(Result result, String coding) {
+        if (result.status() == Http.Status.NOT_MODIFIED) {
+            // Carry the same tag a 200 would have: coded only if that body is compressible
+            boolean coded = coding != null && result.header(Http.HeaderNames.ETAG)
+                    .map(etag -> isCompressible(ETags.formatOf(etag).getMimeType()))
+                    .orElse(false);
+            return coded ? withCodedETag(result, coding) : result;
+        }
+        HttpEntity body = result.body();
+        if (result.header(Http.HeaderNames.CONTENT_ENCODING).isPresent()
+                || result.status() == Http.Status.NO_CONTENT
+                || body.isKnownEmpty()
+                || !body.contentType().map(CompressionFilter::isCompressible).orElse(false)) {
+            return result;
+        }
+
+        Result varied = withVary(result);
+        // Tagged bodies ignore the threshold, so their coding can be told from the tag alone
+        boolean tagged = result.header(Http.HeaderNames.ETAG).isPresent();
+        if (coding == null || (!tagged && body.contentLength().map(length -> length < threshold).orElse(false))) {
+            return varied;
+        }
+
+        HttpEntity encoded;
+        if (body instanceof HttpEntity.Strict) {
+            encoded = new HttpEntity.Strict(compressor.compress(((HttpEntity.Strict) body).data(), coding),
+                    body.contentType());
+        } else {
+            encoded = new HttpEntity.Streamed(body.dataStream().via(streamFlow(coding)), Optional.empty(),
+                    body.contentType());
+        }
+        Result compressed = new Result(varied.asScala().header(), encoded, varied.session(), varied.flash(),
+                cookies(varied));
+        return withCodedETag(compressed.withHeader(Http.HeaderNames.CONTENT_ENCODING, coding), coding);
+    }
+
+    private Flow<ByteString, ByteString, NotUsed> streamFlow(String coding) {
+        return Compressor.GZIP.equals(coding)
+                ? Compression.gzip(compressor.getLevel())
+                : Compression.deflate(compressor.getLevel(), false);
+    }
+
+    static boolean isCompressible(String contentType) {
+        String type = contentType.toLowerCase(Locale.ROOT);
+        if (type.startsWith("text/event-stream")) {
+            return false;
+        }
+        return type.startsWith("text/") || type.contains("json") || type.contains("xml")
+                || type.contains("javascript");
+    }
+
+    private static Result withVary(Result result) {
+        Optional<String> vary = result.header(Http.HeaderNames.VARY);
+        if (vary.map(value -> value.toLowerCase(Locale.ROOT).contains("accept-encoding")).orElse(false)) {
+            return result;
+        }
+        return result.withHeader(Http.HeaderNames.VARY,
+                vary.map(value -> value + ", " + Http.HeaderNames.ACCEPT_ENCODING).orElse(Http.HeaderNames.ACCEPT_ENCODING));
+    }
+
+    private static Result withCodedETag(Result result, String coding) {
+        return result.header(Http.HeaderNames.ETAG)
+                .map(etag -> result.withHeader(Http.HeaderNames.ETAG, ETags.withCoding(etag, coding)))
+                .orElse(result);
+    }
+
+    private static List<Http.Cookie> cookies(Result result) {
+        List<Http.Cookie> cookies = new ArrayList<>();
+        result.cookies().forEach(cookies::add);
+        return cookies;
+    }
+}
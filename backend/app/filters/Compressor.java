@@ -0,0 +1,107 @@
+package filters;
+
+import org.apache.pekko.util.ByteString;
+import org.apache.pekko.util.ByteStringBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * gzip and deflate (zlib) encoding of buffered bodies. Deflaters hold about
+ * 256KB of native memory each and are costly to set up, so they are kept in
+ * a bounded pool together with their output buffer instead of being created
+ * per response.
+ */
+public final class Compressor {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    // Magic, CM=deflate, no flags, no mtime, no extra flags, OS unknown (RFC 1952)
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private final int level;
+    private final ArrayBlockingQueue<Slot> gzipSlots;
+    private final ArrayBlockingQueue<Slot> deflateSlots;
+
+    public Compressor(int level, int poolSize) {
+        this.level = level;
+        this.gzipSlots = new ArrayBlockingQueue<>(poolSize);
+        this.deflateSlots = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public ByteString compress(ByteString data, String coding) {
+        boolean gzip = GZIP.equals(coding);
+        ArrayBlockingQueue<Slot> pool = gzip ? gzipSlots : deflateSlots;
+        Slot slot = pool.poll();
+        if (slot == null) {
+            // gzip writes its own header and trailer around raw deflate data
+            slot = new Slot(new Deflater(level, gzip));
+        }
+        try {
+            return gzip ? gzip(data, slot) : deflate(data, slot);
+        } finally {
+            slot.deflater.reset();
+            if (!pool.offer(slot)) {
+                slot.deflater.end();
+            }
+        }
+    }
+
+    private static ByteString gzip(ByteString data, Slot slot) {
+        ByteStringBuilder out = ByteString.newBuilder();
+        out.putBytes(GZIP_HEADER);
+        slot.crc.reset();
+        for (ByteBuffer buffer : data.getByteBuffers()) {
+            slot.crc.update(buffer.duplicate());
+        }
+        write(data, slot, out);
+        out.putInt((int) slot.crc.getValue(), ByteOrder.LITTLE_ENDIAN);
+        out.putInt(data.size(), ByteOrder.LITTLE_ENDIAN);
+        return out.result();
+    }
+
+    private static ByteString deflate(ByteString data, Slot slot) {
+        ByteStringBuilder out = ByteString.newBuilder();
+        write(data, slot, out);
+        return out.result();
+    }
+
+    // Feeds the body's buffers without copying them into one array first
+    private static void write(ByteString data, Slot slot, ByteStringBuilder out) {
+        Deflater deflater = slot.deflater;
+        for (ByteBuffer buffer : data.getByteBuffers()) {
+            deflater.setInput(buffer);
+            while (!deflater.needsInput()) {
+                drain(slot, out);
+            }
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+            drain(slot, out);
+        }
+    }
+
+    private static void drain(Slot slot, ByteStringBuilder out) {
+        int length = slot.deflater.deflate(slot.buffer);
+        out.putBytes(slot.buffer, 0, length);
+    }
+
+    private static final class Slot {
+
+        private final Deflater deflater;
+        private final CRC32 crc = new CRC32();
+        private final byte[] buffer = new byte[8192];
+
+        Slot(Deflater deflater) {
+            this.deflater = deflater;
+        }
+    }
+}
@@ -6,8 +6,9 @@ import java.time.Instant;
 @MappedSuperclass
 public abstract class BaseEntity {
 
+    // A pooled sequence (defined in META-INF/orm.xml) rather than IDENTITY, so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
     private Long id;
 
     @Column(name = "created_at")
@@ -16,6 +17,10 @@ public abstract class BaseEntity {
     @Column(name = "updated_at")
     private Instant updatedAt;
 
+    // Incremented by every update, so a stale write can be detected
+    @Version
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = Instant.now();
@@ -50,4 +55,12 @@ public abstract class BaseEntity {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 } 
\ No newline at end of file
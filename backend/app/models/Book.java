@@ -2,9 +2,18 @@ package models;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import utils.Isbn;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+        @Index(name = "ux_books_isbn13", columnList = "isbn13", unique = true),
+        // Keyset pages of filtered listings (see BookServiceImpl.getPage) are range scans on these
+        @Index(name = "ix_books_status_year_id", columnList = "status, copyright_year, id"),
+        @Index(name = "ix_books_year_id", columnList = "copyright_year, id"),
+        @Index(name = "ix_books_title_id", columnList = "title, id"),
+        // Delta sync (see BookChangeFeed) reads the books changed after a position of the change feed
+        @Index(name = "ix_books_change_seq_id", columnList = "change_seq, id")
+})
 public class Book extends BaseEntity {
 
     public enum BookStatus {
@@ -17,6 +26,10 @@ public class Book extends BaseEntity {
     @NotNull
     private String isbn;
 
+    // Normalized form of isbn (see utils.Isbn), kept in step by setIsbn
+    @Column(nullable = false, length = 13)
+    private String isbn13;
+
     @Column(nullable = false)
     @NotNull
     private String title;
@@ -34,12 +47,16 @@ public class Book extends BaseEntity {
     @NotNull
     private BookStatus status;
 
+    // Number of the write that last changed the book (see services.BookChangeSequence)
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
     // Default constructor
     public Book() {}
 
     // Constructor with all fields
     public Book(String isbn, String title, String subtitle, Integer copyrightYear, BookStatus status) {
-        this.isbn = isbn;
+        setIsbn(isbn);
         this.title = title;
         this.subtitle = subtitle;
         this.copyrightYear = copyrightYear;
@@ -53,6 +70,11 @@ public class Book extends BaseEntity {
 
     public void setIsbn(String isbn) {
         this.isbn = isbn;
+        this.isbn13 = Isbn.toIsbn13(isbn);
+    }
+
+    public String getIsbn13() {
+        return isbn13;
     }
 
     public String getTitle() {
@@ -86,4 +108,12 @@ public class Book extends BaseEntity {
     public void setStatus(BookStatus status) {
         this.status = status;
     }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,63 @@
+package models;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+/**
+ * Record of a deleted book, so that GET /api/books/changes can tell clients
+ * which ids to drop. Book ids come from a sequence and are never reused, so
+ * the id alone identifies the book. Rows older than the change feed's
+ * retention are compacted away.
+ */
+@Entity
+@Table(name = "book_tombstones", indexes = {
+        @Index(name = "ix_book_tombstones_deleted_at", columnList = "deleted_at"),
+        @Index(name = "ix_book_tombstones_change_seq_book_id", columnList = "change_seq, book_id")
+})
+public class BookTombstone {
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+
+    // Number of the write that deleted the book (see services.BookChangeSequence)
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
+    // Default constructor
+    public BookTombstone() {}
+
+    public BookTombstone(Long bookId, Instant deletedAt, long changeSeq) {
+        this.bookId = bookId;
+        this.deletedAt = deletedAt;
+        this.changeSeq = changeSeq;
+    }
+
+    // Getters and Setters
+    public Long getBookId() {
+        return bookId;
+    }
+
+    public void setBookId(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+}
@@ -0,0 +1,53 @@
+package models.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk delete or status change: how many books were changed
+ * and, when ids were given, which of them did not exist or did not match
+ * the filter.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookBulkResult {
+
+    private int affected;
+    private List<Long> missing;
+
+    // Default constructor
+    public BookBulkResult() {}
+
+    public BookBulkResult(int affected, List<Long> missing) {
+        this.affected = affected;
+        this.missing = missing;
+    }
+
+    public void add(int affected, List<Long> missing) {
+        this.affected += affected;
+        if (missing != null) {
+            if (this.missing == null) {
+                this.missing = new ArrayList<>();
+            }
+            this.missing.addAll(missing);
+        }
+    }
+
+    // Getters and Setters
+    public int getAffected() {
+        return affected;
+    }
+
+    public void setAffected(int affected) {
+        this.affected = affected;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+}
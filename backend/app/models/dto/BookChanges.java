@@ -0,0 +1,59 @@
+package models.dto;
+
+import java.util.List;
+
+/**
+ * Response of GET /api/books/changes: books created or updated since the
+ * token, ids deleted since the token, and the token to pass next time. With
+ * hasMore set the page was full and the next call should follow right away.
+ */
+public class BookChanges {
+
+    private List<BookDto> changed;
+    private List<Long> deleted;
+    private String nextToken;
+    private boolean hasMore;
+
+    // Default constructor
+    public BookChanges() {}
+
+    public BookChanges(List<BookDto> changed, List<Long> deleted, String nextToken, boolean hasMore) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.nextToken = nextToken;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<BookDto> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(List<BookDto> changed) {
+        this.changed = changed;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+
+    public String getNextToken() {
+        return nextToken;
+    }
+
+    public void setNextToken(String nextToken) {
+        this.nextToken = nextToken;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -24,6 +24,8 @@ public class BookDto {
     @JsonProperty("updatedAt")
     private Instant updatedAt;
 
+    private Long version;
+
     // Default constructor
     public BookDto() {}
 
@@ -37,6 +39,21 @@ public class BookDto {
         this.status = book.getStatus().name();
         this.createdAt = book.getCreatedAt();
         this.updatedAt = book.getUpdatedAt();
+        this.version = book.getVersion();
+    }
+
+    // Constructor for JPQL projections (SELECT new models.dto.BookDto(...))
+    public BookDto(Long id, String isbn, String title, String subtitle, Integer copyrightYear,
+                   Book.BookStatus status, Instant createdAt, Instant updatedAt, Long version) {
+        this.id = id;
+        this.isbn = isbn;
+        this.title = title;
+        this.subtitle = subtitle;
+        this.copyrightYear = copyrightYear;
+        this.status = status.name();
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
     }
 
     // Getters and Setters
@@ -103,4 +120,12 @@ public class BookDto {
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,69 @@
+package models.dto;
+
+/**
+ * One committed change to the catalog, as pushed to GET /api/books/events.
+ * Deletions only carry the id. A reset carries nothing: it is the last event
+ * of a subscriber that fell behind, which has to catch up through
+ * GET /api/books/changes.
+ */
+public class BookEvent {
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+    public static final String RESET = "reset";
+
+    private String type;
+    private Long id;
+    private BookDto book;
+
+    // Default constructor
+    public BookEvent() {}
+
+    public BookEvent(String type, Long id, BookDto book) {
+        this.type = type;
+        this.id = id;
+        this.book = book;
+    }
+
+    public static BookEvent created(BookDto book) {
+        return new BookEvent(CREATED, book.getId(), book);
+    }
+
+    public static BookEvent updated(BookDto book) {
+        return new BookEvent(UPDATED, book.getId(), book);
+    }
+
+    public static BookEvent deleted(Long id) {
+        return new BookEvent(DELETED, id, null);
+    }
+
+    public static BookEvent reset() {
+        return new BookEvent(RESET, null, null);
+    }
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public BookDto getBook() {
+        return book;
+    }
+
+    public void setBook(BookDto book) {
+        this.book = book;
+    }
+}
@@ -0,0 +1,93 @@
+package models.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Running totals of a streaming import. Only the first few failures are kept
+ * so that the summary stays small however many books are imported.
+ */
+public class BookImportSummary {
+
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private long total;
+    private long inserted;
+    private long updated;
+    private long skipped;
+    private long failed;
+    private List<BookInsertResult> errors = new ArrayList<>();
+
+    // Default constructor
+    public BookImportSummary() {}
+
+    // Adds the results of one chunk; indexes are shifted to positions in the whole import
+    public BookImportSummary add(List<BookInsertResult> results) {
+        long offset = total;
+        for (BookInsertResult result : results) {
+            if (result.getOutcome() == BookInsertResult.Outcome.UPDATED) {
+                updated++;
+            } else if (result.getOutcome() == BookInsertResult.Outcome.SKIPPED) {
+                skipped++;
+            } else if (result.isSuccess()) {
+                inserted++;
+            } else {
+                failed++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(BookInsertResult.failed((int) (offset + result.getIndex()), result.getError()));
+                }
+            }
+        }
+        total += results.size();
+        return this;
+    }
+
+    // Getters and Setters
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public long getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public List<BookInsertResult> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<BookInsertResult> errors) {
+        this.errors = errors;
+    }
+}
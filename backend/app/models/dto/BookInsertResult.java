@@ -0,0 +1,87 @@
+package models.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of inserting a single entry of a batch request.
+ * Either {@code id} and {@code outcome} or {@code error} are set, never both.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookInsertResult {
+
+    public enum Outcome {
+        INSERTED,
+        // The ISBN was already stored and the book was overwritten (onConflict=update)
+        UPDATED,
+        // The ISBN was already stored and the book was left as it is
+        SKIPPED
+    }
+
+    private int index;
+    private Long id;
+    private Outcome outcome;
+    private String error;
+
+    // Default constructor
+    public BookInsertResult() {}
+
+    private BookInsertResult(int index, Long id, Outcome outcome, String error) {
+        this.index = index;
+        this.id = id;
+        this.outcome = outcome;
+        this.error = error;
+    }
+
+    public static BookInsertResult inserted(int index, Long id) {
+        return new BookInsertResult(index, id, Outcome.INSERTED, null);
+    }
+
+    public static BookInsertResult updated(int index, Long id) {
+        return new BookInsertResult(index, id, Outcome.UPDATED, null);
+    }
+
+    public static BookInsertResult skipped(int index, Long id) {
+        return new BookInsertResult(index, id, Outcome.SKIPPED, null);
+    }
+
+    public static BookInsertResult failed(int index, String error) {
+        return new BookInsertResult(index, null, null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,41 @@
+package models.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is absent on
+ * the last page; otherwise it is passed back as {@code after} to continue.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookPage {
+
+    private List<BookDto> items;
+    private String nextCursor;
+
+    // Default constructor
+    public BookPage() {}
+
+    public BookPage(List<BookDto> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<BookDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<BookDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
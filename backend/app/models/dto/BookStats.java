@@ -0,0 +1,69 @@
+package models.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Catalog statistics for the dashboard: book counts in total, per status
+ * (every status, including those with no books) and per copyright year
+ * (only years that have books, in ascending order).
+ */
+public class BookStats {
+
+    private long total;
+    private Map<String, Long> byStatus = new LinkedHashMap<>();
+    private Map<Integer, Long> byCopyrightYear = new TreeMap<>();
+
+    // Default constructor
+    public BookStats() {}
+
+    public BookStats(long total, Map<String, Long> byStatus, Map<Integer, Long> byCopyrightYear) {
+        this.total = total;
+        this.byStatus = byStatus;
+        this.byCopyrightYear = byCopyrightYear;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BookStats)) {
+            return false;
+        }
+        BookStats other = (BookStats) o;
+        return total == other.total && byStatus.equals(other.byStatus) && byCopyrightYear.equals(other.byCopyrightYear);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(total, byStatus, byCopyrightYear);
+    }
+
+    // Getters and Setters
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getByStatus() {
+        return byStatus;
+    }
+
+    public void setByStatus(Map<String, Long> byStatus) {
+        this.byStatus = byStatus;
+    }
+
+    public Map<Integer, Long> getByCopyrightYear() {
+        return byCopyrightYear;
+    }
+
+    public void setByCopyrightYear(Map<Integer, Long> byCopyrightYear) {
+        this.byCopyrightYear = byCopyrightYear;
+    }
+}
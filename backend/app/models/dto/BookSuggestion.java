@@ -0,0 +1,35 @@
+package models.dto;
+
+/**
+ * Lightweight typeahead entry: just enough to show a title and open the book.
+ */
+public class BookSuggestion {
+
+    private Long id;
+    private String title;
+
+    // Default constructor
+    public BookSuggestion() {}
+
+    public BookSuggestion(Long id, String title) {
+        this.id = id;
+        this.title = title;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+}
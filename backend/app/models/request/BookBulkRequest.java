@@ -0,0 +1,52 @@
+package models.request;
+
+import java.util.List;
+
+/**
+ * Body of the bulk endpoints. Books are selected by ids, by a filter, or
+ * by both (books in the list that also match the filter). {@code status}
+ * is the new status for bulk-status and ignored by bulk-delete.
+ */
+public class BookBulkRequest {
+
+    private List<Long> ids;
+
+    private BookFilter filter;
+
+    private String status;
+
+    // Default constructor
+    public BookBulkRequest() {}
+
+    // Constructor
+    public BookBulkRequest(List<Long> ids, BookFilter filter, String status) {
+        this.ids = ids;
+        this.filter = filter;
+        this.status = status;
+    }
+
+    // Getters and Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public BookFilter getFilter() {
+        return filter;
+    }
+
+    public void setFilter(BookFilter filter) {
+        this.filter = filter;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
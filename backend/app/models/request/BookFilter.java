@@ -0,0 +1,53 @@
+package models.request;
+
+/**
+ * Criteria selecting a set of books. Every field is optional and the
+ * given ones are combined with AND; year bounds are inclusive.
+ */
+public class BookFilter {
+
+    private String status;
+
+    private Integer minCopyrightYear;
+
+    private Integer maxCopyrightYear;
+
+    // Default constructor
+    public BookFilter() {}
+
+    // Constructor
+    public BookFilter(String status, Integer minCopyrightYear, Integer maxCopyrightYear) {
+        this.status = status;
+        this.minCopyrightYear = minCopyrightYear;
+        this.maxCopyrightYear = maxCopyrightYear;
+    }
+
+    public boolean isEmpty() {
+        return status == null && minCopyrightYear == null && maxCopyrightYear == null;
+    }
+
+    // Getters and Setters
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Integer getMinCopyrightYear() {
+        return minCopyrightYear;
+    }
+
+    public void setMinCopyrightYear(Integer minCopyrightYear) {
+        this.minCopyrightYear = minCopyrightYear;
+    }
+
+    public Integer getMaxCopyrightYear() {
+        return maxCopyrightYear;
+    }
+
+    public void setMaxCopyrightYear(Integer maxCopyrightYear) {
+        this.maxCopyrightYear = maxCopyrightYear;
+    }
+}
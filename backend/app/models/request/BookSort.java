@@ -0,0 +1,84 @@
+package models.request;
+
+import exceptions.BookInvalidRequestException;
+import models.dto.BookDto;
+
+/**
+ * Order of a book listing, from the sort query parameter: "id" (the
+ * default), "title" or "copyrightYear", descending with a leading "-".
+ * Ties are broken by id so that every sort is a total order a keyset
+ * cursor can resume from.
+ */
+public final class BookSort {
+
+    public static final BookSort ID = new BookSort("id", "b.id", false);
+
+    private final String name;
+    private final String path;
+    private final boolean descending;
+
+    private BookSort(String name, String path, boolean descending) {
+        this.name = name;
+        this.path = path;
+        this.descending = descending;
+    }
+
+    public static BookSort parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return ID;
+        }
+        boolean descending = value.startsWith("-");
+        String property = descending ? value.substring(1) : value;
+        switch (property) {
+            case "id":
+                return new BookSort(value, "b.id", descending);
+            case "title":
+                return new BookSort(value, "b.title", descending);
+            case "copyrightYear":
+                return new BookSort(value, "b.copyrightYear", descending);
+            default:
+                throw new BookInvalidRequestException("Invalid sort: " + value
+                        + " (expected id, title or copyrightYear, optionally prefixed with -)");
+        }
+    }
+
+    // The sort as given, e.g. "-copyrightYear"; also ties a cursor to its sort
+    public String getName() {
+        return name;
+    }
+
+    // JPQL path of the sorted property
+    public String getPath() {
+        return path;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public boolean isById() {
+        return "b.id".equals(path);
+    }
+
+    public String orderBy() {
+        String direction = descending ? " DESC" : "";
+        return isById() ? path + direction : path + direction + ", b.id" + direction;
+    }
+
+    // Sort key of a book, as carried by the cursor
+    public String key(BookDto book) {
+        return "b.title".equals(path) ? book.getTitle() : String.valueOf(book.getCopyrightYear());
+    }
+
+    // Cursor key back to the type of the property
+    public Object parseKey(String key) {
+        if ("b.title".equals(path)) {
+            return key;
+        }
+        try {
+            return Integer.valueOf(key);
+        } catch (NumberFormatException e) {
+            throw new BookInvalidRequestException("Invalid cursor");
+        }
+    }
+}
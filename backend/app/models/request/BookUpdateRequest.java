@@ -27,6 +27,9 @@ public class BookUpdateRequest {
     @NotBlank(message = "Status is required")
     private String status;
 
+    // Version the client last read, required; the update only applies if it is still current
+    private Long version;
+
     // Default constructor
     public BookUpdateRequest() {}
 
@@ -97,4 +100,12 @@ public class BookUpdateRequest {
     public void setStatus(String status) {
         this.status = status;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 } 
\ No newline at end of file
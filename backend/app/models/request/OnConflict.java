@@ -0,0 +1,30 @@
+package models.request;
+
+import java.util.Locale;
+
+import exceptions.BookInvalidRequestException;
+
+/**
+ * What batch ingestion does with a book whose ISBN is already stored
+ * (the onConflict query parameter).
+ */
+public enum OnConflict {
+
+    // Report the entry as failed (the default)
+    FAIL,
+    // Leave the stored book as it is
+    SKIP,
+    // Overwrite the stored book's fields, unless they are already equal
+    UPDATE;
+
+    public static OnConflict parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return FAIL;
+        }
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BookInvalidRequestException("Invalid onConflict: " + value + " (expected fail, skip or update)");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.typesafe.config.Config;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import models.dto.BookDto;
+
+/**
+ * Read-through cache of {@link BookDto} by id in front of BookService.getOne.
+ *
+ * Caffeine's W-TinyLFU policy keeps the frequently read books and resists
+ * one-off scans. The cache is bounded by an estimate of retained bytes rather
+ * than by entry count, and entries are invalidated once the update or delete
+ * that changed them has committed.
+ */
+@Singleton
+public class BookCache implements BookChangeListener {
+
+    private final Cache<Long, BookDto> cache;
+
+    @Inject
+    public BookCache(Config config) {
+        this(config.getBytes("books.cache.maximum-weight"));
+    }
+
+    BookCache(long maximumWeight) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Long id, BookDto book) -> weigh(book))
+                .recordStats()
+                .build();
+    }
+
+    // Exceptions thrown by the loader (e.g. not found) propagate and nothing is cached
+    public BookDto get(Long id, Function<Long, BookDto> loader) {
+        return cache.get(id, loader);
+    }
+
+    // Without loading and without counting as a read, for writers that can use the cached state
+    public BookDto getIfPresent(Long id) {
+        return cache.policy().getIfPresentQuietly(id);
+    }
+
+    public Map<String, Object> metrics() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("hits", stats.hitCount());
+        metrics.put("misses", stats.missCount());
+        metrics.put("hitRate", stats.hitRate());
+        metrics.put("evictions", stats.evictionCount());
+        metrics.put("evictedBytes", stats.evictionWeight());
+        metrics.put("entries", cache.estimatedSize());
+        metrics.put("bytes", cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L));
+        return metrics;
+    }
+
+    @Override
+    public void onLoaded(BookDto book) {
+        // Only books that are actually read are cached
+    }
+
+    @Override
+    public void onCreated(BookDto book) {
+        // Only books that are actually read are cached
+    }
+
+    @Override
+    public void onUpdated(BookDto previous, BookDto book) {
+        cache.invalidate(book.getId());
+    }
+
+    @Override
+    public void onDeleted(BookDto book) {
+        cache.invalidate(book.getId());
+    }
+
+    // Rough retained size: object headers and boxed fields plus two bytes per char
+    static int weigh(BookDto book) {
+        return 160 + 2 * (length(book.getIsbn()) + length(book.getTitle())
+                + length(book.getSubtitle()) + length(book.getStatus()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
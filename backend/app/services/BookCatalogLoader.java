@@ -0,0 +1,30 @@
+package services;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills every {@link BookChangeListener} from the books table once at
+ * startup. Bound as an eager singleton so it runs before the first request.
+ */
+@Singleton
+public class BookCatalogLoader {
+
+    @Inject
+    public BookCatalogLoader(BookService bookService, Set<BookChangeListener> listeners) {
+        long start = System.nanoTime();
+        AtomicLong count = new AtomicLong();
+
+        bookService.scrollAll(book -> {
+            for (BookChangeListener listener : listeners) {
+                listener.onLoaded(book);
+            }
+            count.incrementAndGet();
+        });
+
+        play.Logger.info("Loaded {} books into {} in-memory views in {} ms",
+                count.get(), listeners.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,100 @@
+package services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import models.dto.BookDto;
+
+/**
+ * Delivers committed changes to the {@link BookChangeListener}s in version
+ * order per book.
+ *
+ * BookService notifies after commit on whichever thread committed, so two
+ * changes of the same book can arrive here in the opposite order of their
+ * commits. Each change is delivered under a lock striped by book id, and a
+ * change whose version is not newer than the last one delivered for that book
+ * (or that arrives after the book was deleted) is dropped for the listeners
+ * that keep the latest state of a book, since the newer change already
+ * carried it. Listeners that add up changes still receive it.
+ *
+ * Delivered versions are only remembered for {@link #DELIVERY_WINDOW}, far
+ * longer than any commit takes to reach here, so memory follows the write
+ * rate rather than the size of the catalog.
+ */
+final class BookChangeDispatcher {
+
+    static final Duration DELIVERY_WINDOW = Duration.ofMinutes(1);
+
+    private static final int LOCK_STRIPES = 64;
+
+    // Newer than any version, so nothing is delivered for a book after its delete
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final Collection<BookChangeListener> listeners;
+    private final Lock[] locks = new Lock[LOCK_STRIPES];
+    private final Cache<Long, Long> delivered;
+
+    BookChangeDispatcher(Collection<BookChangeListener> listeners) {
+        this.listeners = listeners;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.delivered = Caffeine.newBuilder()
+                .expireAfterWrite(DELIVERY_WINDOW)
+                .build();
+    }
+
+    void created(BookDto book) {
+        deliver(book.getId(), versionOf(book), listener -> listener.onCreated(book));
+    }
+
+    void updated(BookDto previous, BookDto book) {
+        deliver(book.getId(), versionOf(book), listener -> listener.onUpdated(previous, book));
+    }
+
+    void deleted(BookDto book) {
+        deliver(book.getId(), DELETED, listener -> listener.onDeleted(book));
+    }
+
+    private void deliver(Long id, long version, Consumer<BookChangeListener> event) {
+        Lock lock = locks[Math.floorMod(id.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            Long last = delivered.getIfPresent(id);
+            boolean stale = last != null && last >= version;
+            if (stale) {
+                play.Logger.debug("Change of book {} at version {} is stale, {} was already delivered",
+                        id, version, last == DELETED ? "its delete" : "version " + last);
+            } else {
+                delivered.put(id, version);
+            }
+            notifyListeners(event, stale);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // A failing view must not fail a mutation that has already been committed
+    private void notifyListeners(Consumer<BookChangeListener> event, boolean stale) {
+        for (BookChangeListener listener : listeners) {
+            if (stale && listener.keepsLatestState()) {
+                continue;
+            }
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                play.Logger.error("Book change listener " + listener.getClass().getSimpleName() + " failed", e);
+            }
+        }
+    }
+
+    private static long versionOf(BookDto book) {
+        return book.getVersion() == null ? 0L : book.getVersion();
+    }
+}
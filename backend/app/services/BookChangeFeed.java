@@ -0,0 +1,160 @@
+package services;
+
+import org.apache.pekko.actor.ActorSystem;
+import com.typesafe.config.Config;
+import play.db.jpa.JPAApi;
+import jakarta.persistence.EntityManager;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import models.BookTombstone;
+import models.dto.BookChanges;
+import models.dto.BookDto;
+import exceptions.BookChangesExpiredException;
+import utils.SyncToken;
+
+/**
+ * Delta sync for clients that keep a copy of the catalog: the books whose
+ * change number (see {@link BookChangeSequence}) moved past a token and the
+ * tombstones of books deleted since, in pages of at most the limit. Both are
+ * range scans on a (change_seq, id) index, so a sync costs what changed
+ * rather than the size of the catalog.
+ *
+ * A call never reads past the sequence's horizon, so a write still
+ * committing is picked up by a later call however long it takes, and the
+ * clock plays no part in the position. A book changed again while a client
+ * pages moves ahead and is read again, so clients must apply changes as
+ * upserts, then deletions. Tombstones are kept for "books.changes.retention"
+ * and compacted every "books.changes.compaction-interval"; a token from a
+ * client last caught up longer ago than the retention is refused and the
+ * client has to reload.
+ */
+@Singleton
+public class BookChangeFeed {
+
+    private final JPAApi jpaApi;
+    private final BookChangeSequence changeSequence;
+    private final Duration retention;
+
+    @Inject
+    public BookChangeFeed(JPAApi jpaApi, BookChangeSequence changeSequence, Config config,
+                          ActorSystem actorSystem, DatabaseExecutionContext dbExecutionContext) {
+        this(jpaApi, changeSequence, config.getDuration("books.changes.retention"));
+        Duration interval = config.getDuration("books.changes.compaction-interval");
+        actorSystem.scheduler().scheduleAtFixedRate(interval, interval, this::compactSafely, dbExecutionContext);
+    }
+
+    BookChangeFeed(JPAApi jpaApi, BookChangeSequence changeSequence, Duration retention) {
+        this.jpaApi = jpaApi;
+        this.changeSequence = changeSequence;
+        this.retention = retention;
+    }
+
+    /**
+     * Up to limit changes after the token; without a token every book from
+     * the start, as a starting point. hasMore tells the client to call again
+     * with the next token right away.
+     */
+    public BookChanges changesSince(String token, int limit) {
+        Instant now = Instant.now();
+        SyncToken since = token == null || token.isEmpty() ? new SyncToken(now, 0L, 0L) : SyncToken.decode(token);
+        if (since.getIssuedAt().isBefore(now.minus(retention))) {
+            throw new BookChangesExpiredException("Changes are only kept for " + retention.toDays()
+                    + " days, reload the catalog");
+        }
+        long horizon = changeSequence.horizon();
+
+        return readOnly(em -> {
+            play.Logger.info("Fetching up to {} book changes after {}:{} up to {}",
+                    limit, since.getChangeSeq(), since.getId(), horizon);
+
+            // Projected straight to the DTO, with the change number the merge and token need alongside
+            List<Object[]> books = em.createQuery("SELECT new models.dto.BookDto(b.id, b.isbn, b.title, "
+                    + "b.subtitle, b.copyrightYear, b.status, b.createdAt, b.updatedAt, b.version), b.changeSeq "
+                    + "FROM Book b WHERE b.changeSeq >= :afterSeq "
+                    + "AND (b.changeSeq, b.id) > (:afterSeq, :afterId) AND b.changeSeq <= :horizon "
+                    + "ORDER BY b.changeSeq, b.id", Object[].class)
+                    .setParameter("afterSeq", since.getChangeSeq())
+                    .setParameter("afterId", since.getId())
+                    .setParameter("horizon", horizon)
+                    .setMaxResults(limit + 1)
+                    .getResultList();
+            List<BookTombstone> tombstones = em.createQuery("SELECT t FROM BookTombstone t "
+                    + "WHERE t.changeSeq >= :afterSeq AND (t.changeSeq, t.bookId) > (:afterSeq, :afterId) "
+                    + "AND t.changeSeq <= :horizon ORDER BY t.changeSeq, t.bookId", BookTombstone.class)
+                    .setParameter("afterSeq", since.getChangeSeq())
+                    .setParameter("afterId", since.getId())
+                    .setParameter("horizon", horizon)
+                    .setMaxResults(limit + 1)
+                    .getResultList();
+
+            // Merge both by (change_seq, id) and keep the first limit
+            List<BookDto> changed = new ArrayList<>();
+            List<Long> deleted = new ArrayList<>();
+            long lastSeq = since.getChangeSeq();
+            long lastId = since.getId();
+            int b = 0;
+            int t = 0;
+            while (changed.size() + deleted.size() < limit && (b < books.size() || t < tombstones.size())) {
+                boolean nextIsBook = t == tombstones.size() || (b < books.size()
+                        && compare((Long) books.get(b)[1], ((BookDto) books.get(b)[0]).getId(),
+                                tombstones.get(t).getChangeSeq(), tombstones.get(t).getBookId()) < 0);
+                if (nextIsBook) {
+                    Object[] row = books.get(b++);
+                    BookDto book = (BookDto) row[0];
+                    changed.add(book);
+                    lastSeq = (Long) row[1];
+                    lastId = book.getId();
+                } else {
+                    BookTombstone tombstone = tombstones.get(t++);
+                    deleted.add(tombstone.getBookId());
+                    lastSeq = tombstone.getChangeSeq();
+                    lastId = tombstone.getBookId();
+                }
+            }
+
+            boolean hasMore = b < books.size() || t < tombstones.size();
+            // A client in the middle of paging has not caught up yet, so it keeps the time of its token
+            SyncToken next = hasMore
+                    ? new SyncToken(since.getIssuedAt(), lastSeq, lastId)
+                    : new SyncToken(now, Math.max(horizon, since.getChangeSeq()), Long.MAX_VALUE);
+            return new BookChanges(changed, deleted, next.encode(), hasMore);
+        });
+    }
+
+    /**
+     * Deletes tombstones past the retention and returns how many.
+     */
+    public int compact() {
+        Instant cutoff = Instant.now().minus(retention);
+        return jpaApi.withTransaction(em -> {
+            return em.createQuery("DELETE FROM BookTombstone t WHERE t.deletedAt < :cutoff")
+                    .setParameter("cutoff", cutoff)
+                    .executeUpdate();
+        });
+    }
+
+    private void compactSafely() {
+        try {
+            int removed = compact();
+            play.Logger.info("Compacted {} book tombstones", removed);
+        } catch (RuntimeException e) {
+            play.Logger.error("Failed to compact book tombstones", e);
+        }
+    }
+
+    private static int compare(long seq, long id, long otherSeq, long otherId) {
+        int bySeq = Long.compare(seq, otherSeq);
+        return bySeq != 0 ? bySeq : Long.compare(id, otherId);
+    }
+
+    private <T> T readOnly(Function<EntityManager, T> block) {
+        return jpaApi.withTransaction(BookServiceImpl.PERSISTENCE_UNIT, true, block);
+    }
+}
@@ -0,0 +1,33 @@
+package services;
+
+import models.dto.BookDto;
+
+/**
+ * In-memory view of the catalog that follows BookService mutations.
+ * Callbacks run after the mutating transaction has committed, one at a time
+ * per book (see {@link BookChangeDispatcher}). Updates and deletes carry the
+ * book as the mutation found it, so a view can undo what it derived from the
+ * old state without remembering it.
+ */
+public interface BookChangeListener {
+
+    // Called once per existing book while the catalog is loaded at startup
+    default void onLoaded(BookDto book) {
+        onCreated(book);
+    }
+
+    /**
+     * True for views that hold the latest state of each book: a change older
+     * than one already delivered is not delivered to them. Views that add up
+     * changes, like BookStatistics, return false and see every change.
+     */
+    default boolean keepsLatestState() {
+        return true;
+    }
+
+    void onCreated(BookDto book);
+
+    void onUpdated(BookDto previous, BookDto book);
+
+    void onDeleted(BookDto book);
+}
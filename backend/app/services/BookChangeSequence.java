@@ -0,0 +1,55 @@
+package services;
+
+import play.db.jpa.JPAApi;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.TreeSet;
+
+/**
+ * Numbers every write transaction for the change feed. A write stamps the
+ * books it changes and the tombstones it leaves with its number
+ * (change_seq), which replaces the clock as the position of a change.
+ *
+ * Numbers are taken before a transaction commits and transactions commit in
+ * any order, so number 12 may be visible while 11 is still in flight.
+ * {@link #horizon()} is the highest number below every write in flight:
+ * each write numbered up to it has committed or rolled back, so a reader
+ * that stops there never steps past a change that is yet to commit.
+ * Seeded from the highest number stored, so numbers keep growing across
+ * restarts.
+ */
+@Singleton
+public class BookChangeSequence {
+
+    private long last;
+
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+
+    @Inject
+    public BookChangeSequence(JPAApi jpaApi) {
+        this(jpaApi.withTransaction(BookServiceImpl.PERSISTENCE_UNIT, true, em -> Math.max(
+                em.createQuery("SELECT COALESCE(MAX(b.changeSeq), 0) FROM Book b", Long.class).getSingleResult(),
+                em.createQuery("SELECT COALESCE(MAX(t.changeSeq), 0) FROM BookTombstone t", Long.class)
+                        .getSingleResult())));
+    }
+
+    BookChangeSequence(long last) {
+        this.last = last;
+    }
+
+    // Before the transaction starts; always paired with finished
+    public synchronized long next() {
+        inFlight.add(++last);
+        return last;
+    }
+
+    // Once the transaction has committed or rolled back
+    public synchronized void finished(long changeSeq) {
+        inFlight.remove(changeSeq);
+    }
+
+    public synchronized long horizon() {
+        return inFlight.isEmpty() ? last : inFlight.first() - 1;
+    }
+}
@@ -0,0 +1,140 @@
+package services;
+
+import org.apache.pekko.NotUsed;
+import org.apache.pekko.stream.BoundedSourceQueue;
+import org.apache.pekko.stream.QueueOfferResult;
+import org.apache.pekko.stream.javadsl.Source;
+import org.apache.pekko.util.ByteString;
+import com.typesafe.config.Config;
+import play.libs.EventSource;
+import play.libs.Json;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import models.dto.BookDto;
+import models.dto.BookEvent;
+
+/**
+ * Fans committed book changes out to the subscribers of
+ * GET /api/books/events, as server-sent event frames. Each change is
+ * serialized once, however many subscribers there are.
+ *
+ * Each subscriber gets its own queue of "books.events.buffer-size" events.
+ * Publishing never blocks the writer: a subscriber whose queue is full is
+ * cut off with a final "reset" event in place of the events it missed, and
+ * the client is expected to catch up through GET /api/books/changes before
+ * subscribing again. At most "books.events.max-subscribers" streams are
+ * open at once.
+ */
+@Singleton
+public class BookEventHub implements BookChangeListener {
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+
+    private static final ByteString RESET_FRAME = frame(BookEvent.reset());
+
+    private final Set<BoundedSourceQueue<ByteString>> subscribers = ConcurrentHashMap.newKeySet();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @Inject
+    public BookEventHub(Config config) {
+        this(config.getInt("books.events.buffer-size"), config.getInt("books.events.max-subscribers"));
+    }
+
+    public BookEventHub(int bufferSize, int maxSubscribers) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * True when no further subscriber is accepted.
+     */
+    public boolean isFull() {
+        return subscribers.size() >= maxSubscribers;
+    }
+
+    /**
+     * Frames of the events published from the moment the returned source is
+     * materialized until it is cancelled, or until the subscriber falls
+     * behind and gets the reset event.
+     */
+    public Source<ByteString, NotUsed> subscribe() {
+        return Source.<ByteString>queue(bufferSize)
+                .watchTermination((queue, done) -> {
+                    subscribers.add(queue);
+                    done.whenComplete((ignored, error) -> subscribers.remove(queue));
+                    return NotUsed.getInstance();
+                })
+                .recover(SubscriberOverflow.class, () -> RESET_FRAME);
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("subscribers", subscribers.size());
+        metrics.put("maxSubscribers", maxSubscribers);
+        metrics.put("published", published.sum());
+        metrics.put("droppedSubscribers", dropped.sum());
+        return metrics;
+    }
+
+    @Override
+    public void onLoaded(BookDto book) {
+        // Loading the catalog at startup is not a change
+    }
+
+    @Override
+    public void onCreated(BookDto book) {
+        publish(BookEvent.created(book));
+    }
+
+    @Override
+    public void onUpdated(BookDto previous, BookDto book) {
+        publish(BookEvent.updated(book));
+    }
+
+    @Override
+    public void onDeleted(BookDto book) {
+        publish(BookEvent.deleted(book.getId()));
+    }
+
+    private void publish(BookEvent event) {
+        published.increment();
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        ByteString frame = frame(event);
+        for (BoundedSourceQueue<ByteString> queue : subscribers) {
+            QueueOfferResult result = queue.offer(frame);
+            if (result == QueueOfferResult.dropped()) {
+                // Too far behind; a gap in its events would leave the client silently wrong.
+                // Failing skips what is still queued and ends the stream with the reset event.
+                if (subscribers.remove(queue)) {
+                    dropped.increment();
+                    queue.fail(new SubscriberOverflow());
+                }
+            } else if (result != QueueOfferResult.enqueued()) {
+                // Closed or failed, about to be removed by its termination callback
+                subscribers.remove(queue);
+            }
+        }
+    }
+
+    static ByteString frame(BookEvent event) {
+        return ByteString.fromString(EventSource.Event.event(Json.toJson(event)).withName(event.getType()).formatted());
+    }
+
+    // Ends the stream of a subscriber that fell behind; never leaves this class
+    private static final class SubscriberOverflow extends RuntimeException {
+        SubscriberOverflow() {
+            super("Subscriber fell too far behind", null, false, false);
+        }
+    }
+}
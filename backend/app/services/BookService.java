@@ -4,22 +4,51 @@ package services;
 
 import com.google.inject.ImplementedBy;
 import java.util.List;
+import java.util.function.Consumer;
+import models.dto.BookBulkResult;
 import models.dto.BookDto;
+import models.dto.BookInsertResult;
+import models.dto.BookPage;
+import models.dto.BookStats;
+import models.dto.BookSuggestion;
+import models.request.BookBulkRequest;
 import models.request.BookCreateRequest;
+import models.request.BookFilter;
+import models.request.BookSort;
 import models.request.BookUpdateRequest;
+import models.request.OnConflict;
 
 @ImplementedBy(BookServiceImpl.class)
 public interface BookService {
 
     BookDto create(BookCreateRequest request);
+
+    List<BookInsertResult> createAll(List<BookCreateRequest> requests, OnConflict onConflict);
     
     BookDto getOne(String id);
+
+    BookDto getByIsbn(String isbn);
     
     List<BookDto> getAll();
+
+    // Counts straight from the database; BookStatistics serves the same figures from memory
+    BookStats computeStats();
+
+    BookPage getPage(BookFilter filter, BookSort sort, String after, int limit);
+
+    void scrollAll(Consumer<BookDto> consumer);
     
     BookDto update(BookUpdateRequest request);
     
     void delete(String id);
+
+    BookBulkResult bulkDelete(BookBulkRequest request);
+
+    BookBulkResult bulkUpdateStatus(BookBulkRequest request);
     
     List<BookDto> search(String query);
+
+    BookPage searchPage(String query, String after, int limit);
+
+    List<BookSuggestion> suggest(String prefix, int limit);
 }
\ No newline at end of file
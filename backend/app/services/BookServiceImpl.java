@@ -2,34 +2,111 @@
 
 package services;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.exception.ConstraintViolationException;
 import play.db.jpa.JPAApi;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import models.Book;
+import models.BookTombstone;
+import models.dto.BookBulkResult;
 import models.dto.BookDto;
+import models.dto.BookInsertResult;
+import models.dto.BookPage;
+import models.dto.BookStats;
+import models.dto.BookSuggestion;
+import models.request.BookBulkRequest;
 import models.request.BookCreateRequest;
+import models.request.BookFilter;
+import models.request.BookSort;
 import models.request.BookUpdateRequest;
+import models.request.OnConflict;
+import exceptions.BookConflictException;
 import exceptions.BookNotFoundException;
 import exceptions.BookInvalidRequestException;
+import exceptions.BookVersionRequiredException;
+import services.index.BookSearchIndex;
+import services.index.IsbnBloomFilter;
+import services.index.TitleSuggester;
+import utils.Isbn;
+import utils.PageCursor;
 
 @Singleton
 public class BookServiceImpl implements BookService {
 
+    // Must match hibernate.jdbc.batch_size in persistence.xml
+    static final int JDBC_BATCH_SIZE = 50;
+
+    // Upper bound of books inserted per transaction by createAll
+    static final int TRANSACTION_CHUNK_SIZE = 1000;
+
+    // Rows fetched per JDBC round trip while scrolling the catalog
+    static final int SCROLL_FETCH_SIZE = 500;
+
+    // Ids per IN (...) list when loading search hits, and per transaction in bulk operations
+    static final int ID_CHUNK_SIZE = 1000;
+
+    // Upper bound of ids accepted by one bulk request
+    static final int MAX_BULK_IDS = 10_000;
+
+    // Name of the persistence unit binding (jpa.default)
+    static final String PERSISTENCE_UNIT = "default";
+
+    // Reads select straight into DTOs, so no entity is managed or snapshotted for dirty checking
+    static final String SELECT_BOOK_DTO = "SELECT new models.dto.BookDto(b.id, b.isbn, b.title, b.subtitle, "
+            + "b.copyrightYear, b.status, b.createdAt, b.updatedAt, b.version) FROM Book b";
+
     private final JPAApi jpaApi;
+    private final BookSearchIndex searchIndex;
+    private final TitleSuggester titleSuggester;
+    private final BookCache bookCache;
+    private final CatalogVersion catalogVersion;
+    private final BookChangeSequence changeSequence;
+    private final IsbnBloomFilter isbnFilter;
+    private final BookChangeDispatcher dispatcher;
 
     @Inject
-    public BookServiceImpl(JPAApi jpaApi) {
+    public BookServiceImpl(JPAApi jpaApi, BookSearchIndex searchIndex, TitleSuggester titleSuggester,
+                           BookCache bookCache, CatalogVersion catalogVersion, BookChangeSequence changeSequence,
+                           IsbnBloomFilter isbnFilter, Set<BookChangeListener> listeners) {
         this.jpaApi = jpaApi;
+        this.searchIndex = searchIndex;
+        this.titleSuggester = titleSuggester;
+        this.bookCache = bookCache;
+        this.catalogVersion = catalogVersion;
+        this.changeSequence = changeSequence;
+        this.isbnFilter = isbnFilter;
+        this.dispatcher = new BookChangeDispatcher(listeners);
     }
 
     @Override
     public BookDto create(BookCreateRequest request) {
-        return jpaApi.withTransaction(em -> {
+        validate(request);
+
+        return write((em, changeSeq) -> {
             play.Logger.info("Creating new book with title: {}", request.getTitle());
 
             Book book = new Book();
@@ -41,83 +118,422 @@ public class BookServiceImpl implements BookService {
             if (request.getCopyrightYear() != null) {
                 book.setCopyrightYear(request.getCopyrightYear());
             }
+            book.setChangeSeq(changeSeq);
 
             em.persist(book);
-            em.flush();
+            try {
+                em.flush();
+            } catch (PersistenceException e) {
+                throw isDuplicateIsbn(e) ? duplicateIsbn(request.getIsbn()) : e;
+            }
             
             play.Logger.info("Successfully created book with id: {}", book.getId());
             return toDto(book);
-        });
+        }, dispatcher::created);
     }
 
+    /**
+     * Inserts the valid entries in chunks of TRANSACTION_CHUNK_SIZE. An entry
+     * whose ISBN is already stored fails, is skipped or overwrites the stored
+     * book depending on onConflict; an ISBN repeated within the request is
+     * only written once, for its first entry.
+     *
+     * Stored ISBNs are only looked up for entries the ISBN Bloom filter does
+     * not rule out, so new books cost no extra query. Overwrites load the
+     * stored books and let Hibernate flush the changed ones in JDBC batches;
+     * books whose fields are unchanged are skipped instead.
+     */
     @Override
-    public BookDto getOne(String id) {
-        return jpaApi.withTransaction(em -> {
-            play.Logger.info("Fetching book with id: {}", id);
-            
+    public List<BookInsertResult> createAll(List<BookCreateRequest> requests, OnConflict onConflict) {
+        play.Logger.info("Creating {} books in batch (onConflict={})", requests.size(), onConflict);
+
+        BookInsertResult[] results = new BookInsertResult[requests.size()];
+        List<Integer> valid = new ArrayList<>(requests.size());
+        // Position of the first entry per ISBN, and of that entry for every repeat
+        Map<String, Integer> firstByIsbn = new HashMap<>();
+        Map<Integer, Integer> repeats = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
             try {
-                Long bookId = Long.valueOf(id);
-                Book book = em.find(Book.class, bookId);
-                if (book == null) {
-                    throw new BookNotFoundException("Book not found");
+                validate(requests.get(i));
+                Integer first = firstByIsbn.putIfAbsent(Isbn.toIsbn13(requests.get(i).getIsbn()), i);
+                if (first == null) {
+                    valid.add(i);
+                } else if (onConflict == OnConflict.FAIL) {
+                    throw duplicateIsbn(requests.get(i).getIsbn());
+                } else {
+                    repeats.put(i, first);
                 }
-                
-                return toDto(book);
-            } catch (NumberFormatException e) {
-                throw new BookInvalidRequestException("Invalid book ID format");
+            } catch (BookInvalidRequestException | BookConflictException e) {
+                results[i] = BookInsertResult.failed(i, e.getMessage());
+            }
+        }
+
+        for (int from = 0; from < valid.size(); from += TRANSACTION_CHUNK_SIZE) {
+            List<Integer> chunk = valid.subList(from, Math.min(from + TRANSACTION_CHUNK_SIZE, valid.size()));
+            writeChunk(requests, chunk, onConflict, results, false);
+        }
+
+        repeats.forEach((index, first) -> results[index] = results[first].isSuccess()
+                ? BookInsertResult.skipped(index, results[first].getId())
+                : BookInsertResult.failed(index, results[first].getError()));
+
+        List<BookInsertResult> insertionResults = Arrays.asList(results);
+        play.Logger.info("Batch finished: {} of {} books inserted", insertionResults.stream()
+                .filter(result -> result.getOutcome() == BookInsertResult.Outcome.INSERTED)
+                .count(), requests.size());
+        return insertionResults;
+    }
+
+    /**
+     * Writes one chunk of createAll in a single transaction. A unique ISBN
+     * violation means a concurrent request stored one of the ISBNs after they
+     * were looked up, and would otherwise fail the whole chunk. The chunk's
+     * writes are then retried one entry per transaction, looking every ISBN
+     * up without the Bloom filter, so only the colliding entries are affected
+     * and onConflict still decides whether they fail, are skipped or
+     * overwrite the stored book.
+     */
+    private void writeChunk(List<BookCreateRequest> requests, List<Integer> chunk, OnConflict onConflict,
+                            BookInsertResult[] results, boolean retry) {
+        Map<String, BookDto> stored = storedBooks(requests, chunk, retry);
+
+        List<Integer> inserts = new ArrayList<>(chunk.size());
+        Map<Integer, Long> updates = new LinkedHashMap<>();
+        for (Integer index : chunk) {
+            BookCreateRequest request = requests.get(index);
+            BookDto existing = stored.get(Isbn.toIsbn13(request.getIsbn()));
+            if (existing == null) {
+                inserts.add(index);
+            } else if (onConflict == OnConflict.FAIL) {
+                results[index] = BookInsertResult.failed(index, duplicateIsbn(request.getIsbn()).getMessage());
+            } else if (onConflict == OnConflict.SKIP || isUnchanged(request, existing)) {
+                results[index] = BookInsertResult.skipped(index, existing.getId());
+            } else {
+                updates.put(index, existing.getId());
+            }
+        }
+        if (inserts.isEmpty() && updates.isEmpty()) {
+            return;
+        }
+
+        ChunkWrite written;
+        try {
+            written = write((em, changeSeq) -> {
+                ChunkWrite chunkWrite = new ChunkWrite(insertChunk(em, requests, inserts, changeSeq));
+                updateChunk(em, requests, updates, changeSeq, chunkWrite);
+                return chunkWrite;
+            }, chunkWrite -> {
+                chunkWrite.inserted.forEach(dispatcher::created);
+                chunkWrite.updated.forEach((index, book) -> dispatcher.updated(chunkWrite.previous.get(index), book));
+            });
+        } catch (RuntimeException e) {
+            if (isDuplicateIsbn(e) && !retry) {
+                play.Logger.info("An ISBN of a batch of {} books was stored concurrently, writing them one at a time",
+                        inserts.size() + updates.size());
+                for (Integer index : inserts) {
+                    writeChunk(requests, List.of(index), onConflict, results, true);
+                }
+                for (Integer index : updates.keySet()) {
+                    writeChunk(requests, List.of(index), onConflict, results, true);
+                }
+                return;
+            }
+            if (isDuplicateIsbn(e)) {
+                // Stored concurrently once more between the lookup and this insert
+                for (Integer index : chunk) {
+                    results[index] = BookInsertResult.failed(index, duplicateIsbn(requests.get(index).getIsbn()).getMessage());
+                }
+                return;
+            }
+            play.Logger.error("Failed to write batch of " + (inserts.size() + updates.size()) + " books", e);
+            for (Integer index : inserts) {
+                results[index] = BookInsertResult.failed(index, "Failed to insert book");
+            }
+            for (Integer index : updates.keySet()) {
+                results[index] = BookInsertResult.failed(index, "Failed to update book");
+            }
+            return;
+        }
+
+        for (int i = 0; i < inserts.size(); i++) {
+            results[inserts.get(i)] = BookInsertResult.inserted(inserts.get(i), written.inserted.get(i).getId());
+        }
+        for (Integer index : updates.keySet()) {
+            BookDto book = written.updated.get(index);
+            results[index] = book != null
+                    ? BookInsertResult.updated(index, book.getId())
+                    : BookInsertResult.failed(index, "Book not found with id: " + updates.get(index));
+        }
+    }
+
+    @Override
+    public BookDto getOne(String id) {
+        Long bookId;
+        try {
+            bookId = Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            throw new BookInvalidRequestException("Invalid book ID format");
+        }
+
+        // Cache hits are served without opening a transaction
+        return bookCache.get(bookId, this::loadOne);
+    }
+
+    private BookDto loadOne(Long bookId) {
+        return readOnly(em -> {
+            play.Logger.info("Fetching book with id: {}", bookId);
+
+            TypedQuery<BookDto> query = em.createQuery(SELECT_BOOK_DTO + " WHERE b.id = :id", BookDto.class);
+            query.setParameter("id", bookId);
+            List<BookDto> books = query.getResultList();
+            if (books.isEmpty()) {
+                throw new BookNotFoundException("Book not found");
             }
+
+            return books.get(0);
+        });
+    }
+
+    @Override
+    public BookDto getByIsbn(String isbn) {
+        String isbn13 = Isbn.toIsbn13(isbn);
+        if (isbn13 == null) {
+            throw new BookInvalidRequestException("Invalid ISBN: " + isbn);
+        }
+
+        return readOnly(em -> {
+            play.Logger.info("Fetching book with ISBN: {}", isbn13);
+
+            // Served by the unique index on isbn13
+            TypedQuery<BookDto> query = em.createQuery(SELECT_BOOK_DTO + " WHERE b.isbn13 = :isbn13", BookDto.class);
+            query.setParameter("isbn13", isbn13);
+            List<BookDto> books = query.getResultList();
+            if (books.isEmpty()) {
+                throw new BookNotFoundException("Book not found with ISBN: " + isbn);
+            }
+
+            return books.get(0);
+        });
+    }
+
+    @Override
+    public BookStats computeStats() {
+        return readOnly(em -> {
+            play.Logger.info("Counting books by status and copyright year");
+
+            TypedQuery<Object[]> query = em.createQuery("SELECT b.status, b.copyrightYear, COUNT(b) FROM Book b "
+                    + "GROUP BY b.status, b.copyrightYear", Object[].class);
+            Map<String, Long> byStatus = new LinkedHashMap<>();
+            for (Book.BookStatus status : Book.BookStatus.values()) {
+                byStatus.put(status.name(), 0L);
+            }
+            Map<Integer, Long> byYear = new TreeMap<>();
+            long total = 0;
+            for (Object[] row : query.getResultList()) {
+                long count = (Long) row[2];
+                byStatus.merge(((Book.BookStatus) row[0]).name(), count, Long::sum);
+                byYear.merge((Integer) row[1], count, Long::sum);
+                total += count;
+            }
+            return new BookStats(total, byStatus, byYear);
         });
     }
 
     @Override
     public List<BookDto> getAll() {
-        return jpaApi.withTransaction(em -> {
+        return readOnly(em -> {
             play.Logger.info("Fetching all books");
             
-            TypedQuery<Book> query = em.createQuery("SELECT b FROM Book b", Book.class);
-            List<Book> books = query.getResultList();
-            
-            return books.stream()
-                    .map(this::toDto)
-                    .collect(Collectors.toList());
+            // Revalidations are answered from CatalogVersion without reaching this query
+            TypedQuery<BookDto> query = em.createQuery(SELECT_BOOK_DTO, BookDto.class);
+            return query.getResultList();
         });
     }
 
+    /**
+     * One page of the books matching the filter, in the given order. The
+     * cursor becomes a keyset condition on (sort key, id) and the filter
+     * plain bound predicates, so with the indexes declared on Book a page
+     * is a range scan however deep it is.
+     *
+     * The keyset is a row-value comparison, which H2 evaluates natively,
+     * plus a redundant bound on the sort key alone. The optimizer can start
+     * the index range from that bound whether or not it uses row values for
+     * index conditions.
+     */
     @Override
-    public BookDto update(BookUpdateRequest request) {
-        return jpaApi.withTransaction(em -> {
-            play.Logger.info("Updating book with id: {}", request.getId());
-            
-            try {
-                Long bookId = Long.valueOf(request.getId());
-                Book book = em.find(Book.class, bookId);
-                if (book == null) {
-                    throw new BookNotFoundException("Book not found with id: " + request.getId());
-                }
-                
-                if (request.getIsbn() != null) book.setIsbn(request.getIsbn());
-                if (request.getTitle() != null) book.setTitle(request.getTitle());
-                if (request.getSubtitle() != null) book.setSubtitle(request.getSubtitle());
-                if (request.getStatus() != null) book.setStatus(Book.BookStatus.valueOf(request.getStatus().toUpperCase()));
-                
-                if (request.getCopyrightYear() != null) {
-                    book.setCopyrightYear(request.getCopyrightYear());
+    public BookPage getPage(BookFilter filter, BookSort sort, String after, int limit) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder conditions = new StringBuilder();
+        String comparison = sort.isDescending() ? " < " : " > ";
+        if (sort.isById()) {
+            // Ascending pages always start after an id, 0 when there is no cursor
+            if (!sort.isDescending() || !isBlank(after)) {
+                conditions.append(" AND b.id").append(comparison).append(":after");
+                parameters.put("after", PageCursor.decode(after));
+            }
+        } else if (!isBlank(after)) {
+            PageCursor.Keyset keyset = PageCursor.decode(after, sort.getName());
+            String bound = sort.isDescending() ? " <= " : " >= ";
+            conditions.append(" AND ").append(sort.getPath()).append(bound).append(":afterKey")
+                    .append(" AND (").append(sort.getPath()).append(", b.id)").append(comparison).append("(:afterKey, :after)");
+            parameters.put("afterKey", sort.parseKey(keyset.getKey()));
+            parameters.put("after", keyset.getId());
+        }
+        appendFilter(conditions, parameters, filter);
+
+        String jpql = SELECT_BOOK_DTO
+                + (conditions.length() == 0 ? "" : " WHERE" + conditions.substring(" AND".length()))
+                + " ORDER BY " + sort.orderBy();
+        return readOnly(em -> {
+            play.Logger.info("Fetching up to {} books sorted by {} after cursor {}", limit, sort.getName(), after);
+
+            TypedQuery<BookDto> query = em.createQuery(jpql, BookDto.class);
+            parameters.forEach(query::setParameter);
+            query.setMaxResults(limit + 1);
+
+            return toPage(query.getResultList(), limit, sort);
+        });
+    }
+
+    @Override
+    public void scrollAll(Consumer<BookDto> consumer) {
+        // Kept in a transaction: some drivers only stream with a fetch size when autocommit is off
+        jpaApi.withTransaction(em -> {
+            play.Logger.info("Scrolling all books");
+
+            // Projected rows are not managed, so the persistence context stays empty however long the scroll
+            Session session = em.unwrap(Session.class);
+            try (ScrollableResults<BookDto> books = session
+                    .createQuery(SELECT_BOOK_DTO + " ORDER BY b.id", BookDto.class)
+                    .setFetchSize(SCROLL_FETCH_SIZE)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (books.next()) {
+                    consumer.accept(books.get());
                 }
-                
-                em.merge(book);
-                em.flush();
-                
-                play.Logger.info("Successfully updated book with id: {}", book.getId());
-                return toDto(book);
-            } catch (NumberFormatException e) {
-                throw new BookInvalidRequestException("Invalid book ID format");
             }
+            return null;
         });
     }
 
+    /**
+     * Applies the non-null fields of the request with a single UPDATE of just
+     * those columns. The request must carry the version the client last read
+     * and the UPDATE only matches that version, so a concurrent change turns
+     * into a BookConflictException instead of being overwritten.
+     *
+     * The listeners need the state the update replaced. A book is identified
+     * at a version by its id and that version, so when BookCache holds the
+     * book at the requested version that is the state, and the update is the
+     * UPDATE alone. Only on a cache miss is the row read at that version
+     * first. The updated book is derived from the previous state plus the
+     * changes rather than read back.
+     *
+     * Being a bulk statement, the UPDATE invalidates every cached query
+     * result over books, as any write does; no entity is cached, so there
+     * is no entity region for it to evict.
+     */
+    @Override
+    public BookDto update(BookUpdateRequest request) {
+        if (request.getId() == null) {
+            throw new BookInvalidRequestException("Book ID is required");
+        }
+        if (request.getVersion() == null) {
+            throw new BookVersionRequiredException("Book version is required, send the version or an If-Match tag");
+        }
+        Long bookId = request.getId();
+
+        Map<String, Object> changes = new LinkedHashMap<>();
+        if (request.getIsbn() != null) {
+            String isbn13 = Isbn.toIsbn13(request.getIsbn());
+            if (isbn13 == null) {
+                throw new BookInvalidRequestException("Invalid ISBN: " + request.getIsbn());
+            }
+            changes.put("isbn", request.getIsbn());
+            changes.put("isbn13", isbn13);
+        }
+        if (request.getTitle() != null) changes.put("title", request.getTitle());
+        if (request.getSubtitle() != null) changes.put("subtitle", request.getSubtitle());
+        if (request.getCopyrightYear() != null) changes.put("copyrightYear", request.getCopyrightYear());
+        if (request.getStatus() != null) changes.put("status", parseStatus(request.getStatus()));
+
+        BookChange change = write((em, changeSeq) -> {
+            play.Logger.info("Updating book with id: {}", bookId);
+
+            BookDto previous = previousState(em, request);
+            Instant updatedAt = Instant.now();
+
+            // Bulk updates skip @PreUpdate and @Version handling, so both are done here
+            StringBuilder jpql = new StringBuilder("UPDATE Book b SET b.version = b.version + 1, b.updatedAt = :updatedAt, "
+                    + "b.changeSeq = :changeSeq");
+            for (String field : changes.keySet()) {
+                jpql.append(", b.").append(field).append(" = :").append(field);
+            }
+            jpql.append(" WHERE b.id = :id AND b.version = :version");
+
+            Query update = em.createQuery(jpql.toString());
+            update.setParameter("updatedAt", updatedAt);
+            update.setParameter("changeSeq", changeSeq);
+            update.setParameter("id", bookId);
+            update.setParameter("version", request.getVersion());
+            changes.forEach(update::setParameter);
+
+            int updatedRows;
+            try {
+                updatedRows = update.executeUpdate();
+            } catch (PersistenceException e) {
+                throw isDuplicateIsbn(e) ? duplicateIsbn(request.getIsbn()) : e;
+            }
+            if (updatedRows == 0) {
+                throw missingOrStale(em, request);
+            }
+
+            // The UPDATE matched the version of the previous state, so the book is that state plus the changes
+            BookDto book = bumped(previous, updatedAt);
+            if (request.getIsbn() != null) book.setIsbn(request.getIsbn());
+            if (request.getTitle() != null) book.setTitle(request.getTitle());
+            if (request.getSubtitle() != null) book.setSubtitle(request.getSubtitle());
+            if (request.getCopyrightYear() != null) book.setCopyrightYear(request.getCopyrightYear());
+            if (request.getStatus() != null) book.setStatus(((Book.BookStatus) changes.get("status")).name());
+
+            play.Logger.info("Successfully updated book with id: {} to version {}", bookId, book.getVersion());
+            return new BookChange(previous, book);
+        }, updated -> dispatcher.updated(updated.previous, updated.book));
+        return change.book;
+    }
+
+    // The book at the requested version, from BookCache when it holds that version
+    private BookDto previousState(EntityManager em, BookUpdateRequest request) {
+        BookDto cached = bookCache.getIfPresent(request.getId());
+        if (cached != null && request.getVersion().equals(cached.getVersion())) {
+            return cached;
+        }
+        TypedQuery<BookDto> select = em.createQuery(SELECT_BOOK_DTO + " WHERE b.id = :id AND b.version = :version",
+                BookDto.class);
+        select.setParameter("id", request.getId());
+        select.setParameter("version", request.getVersion());
+        List<BookDto> current = select.getResultList();
+        if (current.isEmpty()) {
+            throw missingOrStale(em, request);
+        }
+        return current.get(0);
+    }
+
+    // Only called once the book was not found at the requested version, so the extra lookup stays off the normal path
+    private RuntimeException missingOrStale(EntityManager em, BookUpdateRequest request) {
+        TypedQuery<Long> query = em.createQuery("SELECT b.version FROM Book b WHERE b.id = :id", Long.class);
+        query.setParameter("id", request.getId());
+        List<Long> current = query.getResultList();
+        if (!current.isEmpty()) {
+            return new BookConflictException("Book " + request.getId() + " was modified concurrently: version "
+                    + request.getVersion() + " is stale, current version is " + current.get(0));
+        }
+        return new BookNotFoundException("Book not found with id: " + request.getId());
+    }
+
     @Override
     public void delete(String id) {
-        jpaApi.withTransaction(em -> {
+        write((em, changeSeq) -> {
             play.Logger.info("Deleting book with id: {}", id);
             
             try {
@@ -127,36 +543,435 @@ public class BookServiceImpl implements BookService {
                     throw new BookNotFoundException("Book not found with id: " + id);
                 }
                 
+                BookDto deleted = toDto(book);
                 em.remove(book);
+                em.persist(new BookTombstone(bookId, Instant.now(), changeSeq));
                 em.flush();
                 
                 play.Logger.info("Successfully deleted book with id: {}", id);
-                return null;
+                return deleted;
             } catch (NumberFormatException e) {
                 throw new BookInvalidRequestException("Invalid book ID format");
             }
+        }, dispatcher::deleted);
+    }
+
+    @Override
+    public BookBulkResult bulkDelete(BookBulkRequest request) {
+        return bulk(request, (em, ids, changeSeq) -> {
+            List<BookDto> books = lockedBooks(em, ids);
+
+            Query delete = em.createQuery("DELETE FROM Book b WHERE b.id IN :ids");
+            delete.setParameter("ids", ids);
+            delete.executeUpdate();
+
+            Instant deletedAt = Instant.now();
+            ids.forEach(id -> em.persist(new BookTombstone(id, deletedAt, changeSeq)));
+
+            return () -> books.forEach(dispatcher::deleted);
+        });
+    }
+
+    @Override
+    public BookBulkResult bulkUpdateStatus(BookBulkRequest request) {
+        if (isBlank(request.getStatus())) {
+            throw new BookInvalidRequestException("Status is required");
+        }
+        Book.BookStatus status = parseStatus(request.getStatus());
+
+        return bulk(request, (em, ids, changeSeq) -> {
+            List<BookDto> previous = lockedBooks(em, ids);
+            Instant updatedAt = Instant.now();
+
+            Query update = em.createQuery("UPDATE Book b SET b.status = :status, b.version = b.version + 1, "
+                    + "b.updatedAt = :updatedAt, b.changeSeq = :changeSeq WHERE b.id IN :ids");
+            update.setParameter("status", status);
+            update.setParameter("updatedAt", updatedAt);
+            update.setParameter("changeSeq", changeSeq);
+            update.setParameter("ids", ids);
+            update.executeUpdate();
+
+            return () -> previous.forEach(book -> {
+                BookDto updated = bumped(book, updatedAt);
+                updated.setStatus(status.name());
+                dispatcher.updated(book, updated);
+            });
         });
     }
 
+    /**
+     * Runs a set-based statement over the books selected by the request, one
+     * transaction per chunk of ids so that locks stay short however many
+     * books match. Ids are only reported missing when ids were given.
+     */
+    private BookBulkResult bulk(BookBulkRequest request, BulkStatement statement) {
+        List<Long> ids = request.getIds() == null ? new ArrayList<>() : request.getIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        BookFilter filter = request.getFilter() == null || request.getFilter().isEmpty() ? null : request.getFilter();
+        if (ids.isEmpty() && filter == null) {
+            throw new BookInvalidRequestException("Either ids or a filter is required");
+        }
+        if (ids.size() > MAX_BULK_IDS) {
+            throw new BookInvalidRequestException("At most " + MAX_BULK_IDS + " ids per request");
+        }
+        if (filter != null && filter.getStatus() != null) {
+            parseStatus(filter.getStatus());
+        }
+
+        if (!ids.isEmpty()) {
+            BookBulkResult result = new BookBulkResult(0, new ArrayList<>());
+            for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size()));
+                List<Long> matched = bulkChunk(statement, em -> selectIds(em, filter, chunk, 0L));
+
+                Set<Long> found = new HashSet<>(matched);
+                result.add(matched.size(), chunk.stream().filter(id -> !found.contains(id)).collect(Collectors.toList()));
+            }
+            return result;
+        }
+
+        // Walk the filter in id order; changed rows may stop matching, which the keyset does not mind
+        BookBulkResult result = new BookBulkResult(0, null);
+        long afterId = 0L;
+        List<Long> matched;
+        do {
+            long after = afterId;
+            matched = bulkChunk(statement, em -> selectIds(em, filter, null, after));
+            result.add(matched.size(), null);
+            if (!matched.isEmpty()) {
+                afterId = matched.get(matched.size() - 1);
+            }
+        } while (matched.size() == ID_CHUNK_SIZE);
+        return result;
+    }
+
+    private List<Long> bulkChunk(BulkStatement statement, Function<EntityManager, List<Long>> select) {
+        return write((em, changeSeq) -> {
+            List<Long> ids = select.apply(em);
+            return new BulkChunk(ids, ids.isEmpty() ? () -> {} : statement.apply(em, ids, changeSeq));
+        }, chunk -> chunk.afterCommit.run()).ids;
+    }
+
+    // Ids of up to ID_CHUNK_SIZE books after afterId matching the filter and, if given, the id list
+    private List<Long> selectIds(EntityManager em, BookFilter filter, List<Long> ids, long afterId) {
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder jpql = new StringBuilder("SELECT b.id FROM Book b WHERE b.id > :after");
+        parameters.put("after", afterId);
+        if (ids != null) {
+            jpql.append(" AND b.id IN :ids");
+            parameters.put("ids", ids);
+        }
+        appendFilter(jpql, parameters, filter);
+        jpql.append(" ORDER BY b.id");
+
+        TypedQuery<Long> query = em.createQuery(jpql.toString(), Long.class);
+        parameters.forEach(query::setParameter);
+        query.setMaxResults(ID_CHUNK_SIZE);
+        return query.getResultList();
+    }
+
+    private static void appendFilter(StringBuilder jpql, Map<String, Object> parameters, BookFilter filter) {
+        if (filter == null) {
+            return;
+        }
+        if (filter.getStatus() != null) {
+            jpql.append(" AND b.status = :filterStatus");
+            parameters.put("filterStatus", parseStatus(filter.getStatus()));
+        }
+        if (filter.getMinCopyrightYear() != null) {
+            jpql.append(" AND b.copyrightYear >= :minCopyrightYear");
+            parameters.put("minCopyrightYear", filter.getMinCopyrightYear());
+        }
+        if (filter.getMaxCopyrightYear() != null) {
+            jpql.append(" AND b.copyrightYear <= :maxCopyrightYear");
+            parameters.put("maxCopyrightYear", filter.getMaxCopyrightYear());
+        }
+    }
+
+    // Applies a statement to matched ids inside the transaction; returns what to notify once it has committed
+    private interface BulkStatement {
+        Runnable apply(EntityManager em, List<Long> ids, long changeSeq);
+    }
+
+    private static final class BulkChunk {
+
+        private final List<Long> ids;
+        private final Runnable afterCommit;
+
+        BulkChunk(List<Long> ids, Runnable afterCommit) {
+            this.ids = ids;
+            this.afterCommit = afterCommit;
+        }
+    }
+
     @Override
     public List<BookDto> search(String query) {
-        return jpaApi.withTransaction(em -> {
-            play.Logger.info("Searching books with query: {}", query);
-            
-            TypedQuery<Book> jpqlQuery = em.createQuery(
-                "SELECT b FROM Book b WHERE LOWER(b.title) LIKE LOWER(:query) OR LOWER(b.subtitle) LIKE LOWER(:query)", 
-                Book.class
-            );
-            jpqlQuery.setParameter("query", "%" + query + "%");
-            
-            List<Book> books = jpqlQuery.getResultList();
-            
-            return books.stream()
-                    .map(this::toDto)
-                    .collect(Collectors.toList());
+        play.Logger.info("Searching books with query: {}", query);
+        return findByIds(searchIndex.search(query));
+    }
+
+    @Override
+    public BookPage searchPage(String query, String after, int limit) {
+        long afterId = PageCursor.decode(after);
+        play.Logger.info("Searching up to {} books after id {} with query: {}", limit, afterId, query);
+
+        List<Long> ids = searchIndex.search(query, afterId, limit + 1);
+        List<BookDto> items = findByIds(ids.subList(0, Math.min(limit, ids.size())));
+        String nextCursor = ids.size() > limit ? PageCursor.encode(ids.get(limit - 1)) : null;
+        return new BookPage(items, nextCursor);
+    }
+
+    @Override
+    public List<BookSuggestion> suggest(String prefix, int limit) {
+        return titleSuggester.suggest(prefix, limit);
+    }
+
+    // Loads books matched by the search index, in id order
+    private List<BookDto> findByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return readOnly(em -> {
+            List<BookDto> books = new ArrayList<>(ids.size());
+            for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+                TypedQuery<BookDto> query = em.createQuery(
+                    SELECT_BOOK_DTO + " WHERE b.id IN :ids ORDER BY b.id",
+                    BookDto.class
+                );
+                query.setParameter("ids", ids.subList(from, Math.min(from + ID_CHUNK_SIZE, ids.size())));
+                books.addAll(query.getResultList());
+            }
+            return books;
         });
     }
-    
+
+    // Runs a query without a transaction, so there is nothing to flush or commit afterwards
+    private <T> T readOnly(Function<EntityManager, T> block) {
+        return jpaApi.withTransaction(PERSISTENCE_UNIT, true, block);
+    }
+
+    // Books were fetched with one extra row to learn whether another page follows
+    private BookPage toPage(List<BookDto> books, int limit, BookSort sort) {
+        List<BookDto> items = books.stream()
+                .limit(limit)
+                .collect(Collectors.toList());
+        if (books.size() <= limit) {
+            return new BookPage(items, null);
+        }
+        BookDto last = items.get(items.size() - 1);
+        String nextCursor = sort.isById()
+                ? PageCursor.encode(last.getId())
+                : PageCursor.encode(sort.getName(), sort.key(last), last.getId());
+        return new BookPage(items, nextCursor);
+    }
+
+    // Stored books by ISBN-13, only looked up for ISBNs the Bloom filter says may be stored
+    // The Bloom filter only hears of books once they are committed and notified, so a retry asks regardless
+    private Map<String, BookDto> storedBooks(List<BookCreateRequest> requests, List<Integer> chunk, boolean all) {
+        List<String> candidates = chunk.stream()
+                .map(index -> Isbn.toIsbn13(requests.get(index).getIsbn()))
+                .filter(isbn13 -> all || isbnFilter.mightContain(isbn13))
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return Map.of();
+        }
+
+        List<BookDto> books = readOnly(em -> {
+            TypedQuery<BookDto> query = em.createQuery(SELECT_BOOK_DTO + " WHERE b.isbn13 IN :isbns", BookDto.class);
+            query.setParameter("isbns", candidates);
+            return query.getResultList();
+        });
+        Map<String, BookDto> stored = new HashMap<>();
+        for (BookDto book : books) {
+            stored.put(Isbn.toIsbn13(book.getIsbn()), book);
+        }
+        return stored;
+    }
+
+    private static boolean isUnchanged(BookCreateRequest request, BookDto book) {
+        return Objects.equals(request.getIsbn(), book.getIsbn())
+                && Objects.equals(request.getTitle(), book.getTitle())
+                && Objects.equals(request.getSubtitle() != null ? request.getSubtitle() : "", book.getSubtitle())
+                && Objects.equals(request.getCopyrightYear(), book.getCopyrightYear())
+                && parseStatus(request.getStatus()).name().equals(book.getStatus());
+    }
+
+    // The unique index on isbn13 is what finally rules out duplicates written concurrently
+    private static boolean isDuplicateIsbn(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String constraint = ((ConstraintViolationException) cause).getConstraintName();
+                String text = constraint != null ? constraint : cause.getMessage();
+                return text != null && text.toLowerCase().contains("ux_books_isbn13");
+            }
+        }
+        return false;
+    }
+
+    private static BookConflictException duplicateIsbn(String isbn) {
+        return new BookConflictException("A book with ISBN " + isbn + " already exists");
+    }
+
+    private List<BookDto> insertChunk(EntityManager em, List<BookCreateRequest> requests, List<Integer> chunk,
+                                      long changeSeq) {
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+        List<Book> books = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Book book = requests.get(chunk.get(i)).toBook();
+            book.setChangeSeq(changeSeq);
+            em.persist(book);
+            books.add(book);
+
+            // Send the pending inserts as one JDBC batch and keep the persistence context small
+            if ((i + 1) % JDBC_BATCH_SIZE == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return books.stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+    }
+
+    // Overwrites the stored books by id; dirty checking sends the changes as batched, versioned UPDATEs
+    private void updateChunk(EntityManager em, List<BookCreateRequest> requests, Map<Integer, Long> updates,
+                             long changeSeq, ChunkWrite write) {
+        if (updates.isEmpty()) {
+            return;
+        }
+
+        TypedQuery<Book> query = em.createQuery("SELECT b FROM Book b WHERE b.id IN :ids", Book.class);
+        query.setParameter("ids", new ArrayList<>(updates.values()));
+        Map<Long, Book> books = query.getResultList().stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        Map<Integer, Book> changed = new LinkedHashMap<>();
+        updates.forEach((index, id) -> {
+            Book book = books.get(id);
+            if (book != null) {
+                write.previous.put(index, toDto(book));
+                BookCreateRequest request = requests.get(index);
+                book.setIsbn(request.getIsbn());
+                book.setTitle(request.getTitle());
+                book.setSubtitle(request.getSubtitle() != null ? request.getSubtitle() : "");
+                book.setCopyrightYear(request.getCopyrightYear());
+                book.setStatus(parseStatus(request.getStatus()));
+                book.setChangeSeq(changeSeq);
+                changed.put(index, book);
+            }
+        });
+        em.flush();
+
+        changed.forEach((index, book) -> write.updated.put(index, toDto(book)));
+        em.clear();
+    }
+
+    private static final class ChunkWrite {
+
+        private final List<BookDto> inserted;
+        // Per request index, the book before and after the overwrite
+        private final Map<Integer, BookDto> previous = new LinkedHashMap<>();
+        private final Map<Integer, BookDto> updated = new LinkedHashMap<>();
+
+        ChunkWrite(List<BookDto> inserted) {
+            this.inserted = inserted;
+        }
+    }
+
+    private static final class BookChange {
+
+        private final BookDto previous;
+        private final BookDto book;
+
+        BookChange(BookDto previous, BookDto book) {
+            this.previous = previous;
+            this.book = book;
+        }
+    }
+
+    /**
+     * Runs the transaction of a mutation and then notifies the listeners of
+     * its outcome. The transaction gets the change number to stamp what it
+     * writes with. CatalogVersion counts the write as in flight from before
+     * the transaction until the listeners have been notified, and
+     * BookChangeSequence until the transaction has ended.
+     */
+    private <T> T write(BiFunction<EntityManager, Long, T> transaction, Consumer<T> notify) {
+        catalogVersion.beginWrite();
+        try {
+            long changeSeq = changeSequence.next();
+            T result;
+            try {
+                result = jpaApi.withTransaction(em -> transaction.apply(em, changeSeq));
+            } finally {
+                changeSequence.finished(changeSeq);
+            }
+            notify.accept(result);
+            return result;
+        } finally {
+            catalogVersion.endWrite();
+        }
+    }
+
+    // Locks the rows until the transaction ends, so what is read is what the following statement replaces
+    private List<BookDto> lockedBooks(EntityManager em, List<Long> ids) {
+        TypedQuery<Book> query = em.createQuery("SELECT b FROM Book b WHERE b.id IN :ids ORDER BY b.id", Book.class);
+        query.setParameter("ids", ids);
+        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        List<BookDto> books = query.getResultList().stream()
+                .map(this::toDto)
+                .collect(Collectors.toList());
+        // The bulk statement bypasses the persistence context, which must not keep stale copies
+        em.clear();
+        return books;
+    }
+
+    // The book as a statement that bumped its version and updatedAt left it, without reading it back
+    private static BookDto bumped(BookDto book, Instant updatedAt) {
+        return new BookDto(book.getId(), book.getIsbn(), book.getTitle(), book.getSubtitle(), book.getCopyrightYear(),
+                Book.BookStatus.valueOf(book.getStatus()), book.getCreatedAt(), updatedAt, book.getVersion() + 1);
+    }
+
+    private void validate(BookCreateRequest request) {
+        if (request == null) {
+            throw new BookInvalidRequestException("Invalid book data");
+        }
+        if (isBlank(request.getIsbn())) {
+            throw new BookInvalidRequestException("ISBN is required");
+        }
+        if (Isbn.toIsbn13(request.getIsbn()) == null) {
+            throw new BookInvalidRequestException("Invalid ISBN: " + request.getIsbn());
+        }
+        if (isBlank(request.getTitle())) {
+            throw new BookInvalidRequestException("Title is required");
+        }
+        if (request.getCopyrightYear() == null) {
+            throw new BookInvalidRequestException("Copyright year is required");
+        }
+        if (isBlank(request.getStatus())) {
+            throw new BookInvalidRequestException("Status is required");
+        }
+        parseStatus(request.getStatus());
+    }
+
+    private static Book.BookStatus parseStatus(String status) {
+        try {
+            return Book.BookStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BookInvalidRequestException("Invalid status: " + status);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
     private BookDto toDto(Book book) {
         BookDto dto = new BookDto();
         dto.setId(book.getId());
@@ -167,6 +982,7 @@ public class BookServiceImpl implements BookService {
         dto.setStatus(book.getStatus().name());
         dto.setCreatedAt(book.getCreatedAt());
         dto.setUpdatedAt(book.getUpdatedAt());
+        dto.setVersion(book.getVersion());
         return dto;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,133 @@
+package services;
+
+import javax.inject.Singleton;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+
+import models.Book;
+import models.dto.BookDto;
+import models.dto.BookStats;
+
+/**
+ * Book counts per status and per copyright year, kept in memory so that
+ * GET /api/books/stats never runs a GROUP BY.
+ *
+ * Seeded by BookCatalogLoader and moved by BookService's change events,
+ * which fire once a write has committed, so rolled-back writes never show.
+ * Updates and deletes carry the state they replaced, so each event moves the
+ * counts by a delta and nothing is remembered per book; deltas add up to the
+ * same counts in any order, which is why every event is delivered here, even
+ * one that arrives after a newer change of the same book.
+ * BookStatisticsReconciler compares the counts with the database now and
+ * then.
+ */
+@Singleton
+public class BookStatistics implements BookChangeListener {
+
+    private static final Book.BookStatus[] STATUSES = Book.BookStatus.values();
+
+    private final LongAdder[] byStatus = new LongAdder[STATUSES.length];
+    private final Map<Integer, LongAdder> byYear = new ConcurrentHashMap<>();
+
+    // Events share the read lock, so a reset never interleaves with an event half applied
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public BookStatistics() {
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] = new LongAdder();
+        }
+    }
+
+    public BookStats snapshot() {
+        Map<String, Long> statuses = new LinkedHashMap<>();
+        long total = 0;
+        for (int i = 0; i < STATUSES.length; i++) {
+            long count = byStatus[i].sum();
+            statuses.put(STATUSES[i].name(), count);
+            total += count;
+        }
+        Map<Integer, Long> years = new TreeMap<>();
+        byYear.forEach((year, counter) -> {
+            long count = counter.sum();
+            if (count > 0) {
+                years.put(year, count);
+            }
+        });
+        return new BookStats(total, statuses, years);
+    }
+
+    /**
+     * Replaces the counts with figures taken from the database, unless they
+     * already match or settled no longer holds. No event is applied while
+     * settled is checked and the counts are replaced, so an event applied
+     * before is part of what settled vouches for and one applied after adds
+     * to the new counts. Returns the counts replaced, or null.
+     */
+    public BookStats reset(BookStats stats, BooleanSupplier settled) {
+        lock.writeLock().lock();
+        try {
+            BookStats counted = snapshot();
+            if (counted.equals(stats) || !settled.getAsBoolean()) {
+                return null;
+            }
+            for (int i = 0; i < STATUSES.length; i++) {
+                byStatus[i].reset();
+                byStatus[i].add(stats.getByStatus().getOrDefault(STATUSES[i].name(), 0L));
+            }
+            byYear.values().forEach(LongAdder::reset);
+            stats.getByCopyrightYear().forEach((year, count) -> yearCounter(year).add(count));
+            return counted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean keepsLatestState() {
+        return false;
+    }
+
+    @Override
+    public void onCreated(BookDto book) {
+        count(null, book);
+    }
+
+    @Override
+    public void onUpdated(BookDto previous, BookDto book) {
+        count(previous, book);
+    }
+
+    @Override
+    public void onDeleted(BookDto book) {
+        count(book, null);
+    }
+
+    private void count(BookDto removed, BookDto added) {
+        lock.readLock().lock();
+        try {
+            if (removed != null) {
+                add(removed, -1);
+            }
+            if (added != null) {
+                add(added, 1);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(BookDto book, int delta) {
+        byStatus[Book.BookStatus.valueOf(book.getStatus()).ordinal()].add(delta);
+        yearCounter(book.getCopyrightYear()).add(delta);
+    }
+
+    private LongAdder yearCounter(int year) {
+        return byYear.computeIfAbsent(year, y -> new LongAdder());
+    }
+}
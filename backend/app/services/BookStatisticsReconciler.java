@@ -0,0 +1,77 @@
+package services;
+
+import org.apache.pekko.actor.ActorSystem;
+import com.typesafe.config.Config;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import models.dto.BookStats;
+
+/**
+ * Periodically checks the in-memory {@link BookStatistics} against a
+ * GROUP BY over the books table, every "books.stats.reconcile-interval".
+ *
+ * A difference only counts when the catalog version did not move since
+ * before the query and no write is in flight, checked while BookStatistics
+ * holds off events; otherwise a write committed but not yet counted (or
+ * counted but not yet committed when the query ran) could explain it and
+ * the next run decides. A confirmed difference is logged and the counts are
+ * reset to the database figures.
+ */
+@Singleton
+public class BookStatisticsReconciler {
+
+    private final BookService bookService;
+    private final BookStatistics statistics;
+    private final CatalogVersion catalogVersion;
+
+    private final AtomicLong mismatches = new AtomicLong();
+
+    @Inject
+    public BookStatisticsReconciler(ActorSystem actorSystem, Config config, DatabaseExecutionContext dbExecutionContext,
+                                    BookService bookService, BookStatistics statistics, CatalogVersion catalogVersion) {
+        this(bookService, statistics, catalogVersion);
+        Duration interval = config.getDuration("books.stats.reconcile-interval");
+        // Cancelled when the actor system terminates
+        actorSystem.scheduler().scheduleAtFixedRate(interval, interval, this::reconcileSafely, dbExecutionContext);
+    }
+
+    BookStatisticsReconciler(BookService bookService, BookStatistics statistics, CatalogVersion catalogVersion) {
+        this.bookService = bookService;
+        this.statistics = statistics;
+        this.catalogVersion = catalogVersion;
+    }
+
+    /**
+     * Returns false when the counts differed from the database and were reset.
+     */
+    public boolean reconcile() {
+        long versionBefore = catalogVersion.current();
+        BookStats expected = bookService.computeStats();
+        BookStats actual = statistics.reset(expected,
+                () -> catalogVersion.current() == versionBefore && catalogVersion.writesInFlight() == 0);
+        if (actual == null) {
+            return true;
+        }
+
+        mismatches.incrementAndGet();
+        play.Logger.warn("Book statistics drifted from the database, resetting: counted {} books, stored {}",
+                actual.getTotal(), expected.getTotal());
+        return false;
+    }
+
+    public long mismatches() {
+        return mismatches.get();
+    }
+
+    private void reconcileSafely() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            play.Logger.error("Failed to reconcile book statistics", e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package services;
+
+import javax.inject.Singleton;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import models.dto.BookDto;
+
+/**
+ * Monotonic version of the whole catalog, used to tag list responses.
+ *
+ * BookServiceImpl bumps it when a mutation starts, again as a listener
+ * once the mutation has committed, and once more when the mutation has
+ * finished notifying every listener. A reader that takes the version before
+ * reading rows therefore never tags changed rows with a version from before
+ * the change. Mutations between beginWrite and endWrite are counted, so
+ * BookStatisticsReconciler can tell that no committed change is still on
+ * its way to the listeners.
+ */
+@Singleton
+public class CatalogVersion implements BookChangeListener {
+
+    // Seeded from the clock so versions keep growing across restarts and old ETags do not match
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    private final AtomicInteger writesInFlight = new AtomicInteger();
+
+    public long current() {
+        return version.get();
+    }
+
+    public void bump() {
+        version.incrementAndGet();
+    }
+
+    // Before the transaction of a mutation starts; always paired with endWrite
+    public void beginWrite() {
+        writesInFlight.incrementAndGet();
+        bump();
+    }
+
+    // After the mutation has notified the listeners, or failed
+    public void endWrite() {
+        bump();
+        writesInFlight.decrementAndGet();
+    }
+
+    public int writesInFlight() {
+        return writesInFlight.get();
+    }
+
+    @Override
+    public void onLoaded(BookDto book) {
+        // Loading does not change the catalog
+    }
+
+    @Override
+    public void onCreated(BookDto book) {
+        bump();
+    }
+
+    @Override
+    public void onUpdated(BookDto previous, BookDto book) {
+        bump();
+    }
+
+    @Override
+    public void onDeleted(BookDto book) {
+        bump();
+    }
+}
@@ -0,0 +1,144 @@
+package services;
+
+import org.apache.pekko.actor.ActorSystem;
+import com.typesafe.config.Config;
+import play.libs.concurrent.CustomExecutionContext;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor for blocking JPA work, in one of two modes selected by
+ * "database.execution-mode" in application.conf:
+ *
+ * - dispatcher: tasks run on "database.dispatcher", a fixed pool with as
+ *   many platform threads as the JDBC pool has connections
+ * - virtual-threads: every task gets its own virtual thread, and a
+ *   semaphore with one permit per connection caps how many run at once
+ *
+ * Either way database calls never occupy the default dispatcher or the
+ * common pool. Tasks waiting for a thread or permit are counted, and once
+ * "database.max-queue" of them are waiting new ones are rejected instead
+ * of piling up.
+ */
+@Singleton
+public class DatabaseExecutionContext extends CustomExecutionContext {
+
+    static final String DISPATCHER = "database.dispatcher";
+
+    static final String MODE_DISPATCHER = "dispatcher";
+    static final String MODE_VIRTUAL_THREADS = "virtual-threads";
+
+    private final String mode;
+    private final int poolSize;
+    private final int maxQueue;
+
+    // Only set in virtual-thread mode
+    private final ExecutorService virtualThreads;
+    private final Semaphore permits;
+
+    // Tasks submitted and not yet finished, running or waiting for a thread
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0L);
+
+    @Inject
+    public DatabaseExecutionContext(ActorSystem actorSystem, Config config) {
+        super(actorSystem, DISPATCHER);
+        this.poolSize = config.getInt(DISPATCHER + ".thread-pool-executor.fixed-pool-size");
+        this.maxQueue = config.getInt("database.max-queue");
+        this.mode = config.getString("database.execution-mode");
+
+        switch (mode) {
+            case MODE_DISPATCHER:
+                this.virtualThreads = null;
+                this.permits = null;
+                break;
+            case MODE_VIRTUAL_THREADS:
+                // Virtual threads are daemon threads, nothing to shut down on stop
+                this.virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+                this.permits = new Semaphore(poolSize, true);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown database.execution-mode: " + mode);
+        }
+        play.Logger.info("Database calls run in {} mode, {} at a time", mode, poolSize);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (pending.incrementAndGet() > poolSize + maxQueue) {
+            pending.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException("Database queue is full");
+        }
+
+        long submittedAt = System.nanoTime();
+        try {
+            if (virtualThreads != null) {
+                virtualThreads.execute(() -> run(task, submittedAt));
+            } else {
+                super.execute(() -> run(task, submittedAt));
+            }
+        } catch (RuntimeException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * True when new tasks would be rejected.
+     */
+    public boolean isSaturated() {
+        return pending.get() >= poolSize + maxQueue;
+    }
+
+    public Map<String, Object> metrics() {
+        long started = completed.sum() + active.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("mode", mode);
+        metrics.put("poolSize", poolSize);
+        metrics.put("active", active.get());
+        metrics.put("queued", Math.max(0, pending.get() - active.get()));
+        metrics.put("maxQueue", maxQueue);
+        metrics.put("completed", completed.sum());
+        metrics.put("rejected", rejected.sum());
+        metrics.put("avgWaitMillis", started == 0 ? 0.0 : totalWaitNanos.sum() / 1e6 / started);
+        metrics.put("maxWaitMillis", TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()));
+        return metrics;
+    }
+
+    private void run(Runnable task, long submittedAt) {
+        if (permits != null) {
+            // Never give up waiting: a task that does not run would leave its future incomplete
+            permits.acquireUninterruptibly();
+        }
+        long waited = System.nanoTime() - submittedAt;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulate(waited);
+        active.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            completed.increment();
+            pending.decrementAndGet();
+            active.decrementAndGet();
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+}
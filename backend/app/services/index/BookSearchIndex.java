@@ -0,0 +1,234 @@
+package services.index;
+
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import models.dto.BookDto;
+import services.BookChangeListener;
+
+/**
+ * Trigram inverted index over the lowercased title and subtitle of every book.
+ *
+ * A substring query is answered by intersecting the posting lists of its
+ * trigrams, then checking each candidate against the indexed text, so the
+ * database is never scanned. Posting lists are sorted id arrays, which lets
+ * results come back in id order and supports keyset pagination directly.
+ */
+@Singleton
+public class BookSearchIndex implements BookChangeListener {
+
+    private static final int GRAM = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, IndexedText> documents = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    // Every indexed id, used for queries too short to have a trigram
+    private final Postings allIds = new Postings();
+
+    @Override
+    public void onCreated(BookDto book) {
+        put(book.getId(), book.getTitle(), book.getSubtitle());
+    }
+
+    @Override
+    public void onUpdated(BookDto previous, BookDto book) {
+        put(book.getId(), book.getTitle(), book.getSubtitle());
+    }
+
+    @Override
+    public void onDeleted(BookDto book) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(book.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(long id, String title, String subtitle) {
+        IndexedText text = new IndexedText(normalize(title), normalize(subtitle));
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            documents.put(id, text);
+            allIds.add(id);
+            for (long gram : text.grams()) {
+                postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query) {
+        return search(query, 0L, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Ids of books whose title or subtitle contains the query, in ascending
+     * order, starting after {@code afterId} and returning at most {@code max}.
+     */
+    public List<Long> search(String query, long afterId, int max) {
+        String needle = normalize(query);
+        lock.readLock().lock();
+        try {
+            long[] grams = grams(needle);
+            if (grams.length == 0) {
+                return scan(allIds, afterId, max, needle, new Postings[0]);
+            }
+
+            Postings[] lists = new Postings[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = postings.get(grams[i]);
+                if (lists[i] == null) {
+                    return new ArrayList<>();
+                }
+            }
+            // Drive the intersection from the shortest list
+            Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+            return scan(lists[0], afterId, max, needle, Arrays.copyOfRange(lists, 1, lists.length));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> scan(Postings driver, long afterId, int max, String needle, Postings[] others) {
+        List<Long> matches = new ArrayList<>();
+        for (int i = driver.indexAfter(afterId); i < driver.size && matches.size() < max; i++) {
+            long id = driver.ids[i];
+            if (containsAll(others, id) && documents.get(id).contains(needle)) {
+                matches.add(id);
+            }
+        }
+        return matches;
+    }
+
+    private static boolean containsAll(Postings[] lists, long id) {
+        for (Postings list : lists) {
+            if (!list.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Caller holds the write lock
+    private void removeDocument(long id) {
+        IndexedText previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        allIds.remove(id);
+        for (long gram : previous.grams()) {
+            Postings list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    // Distinct trigrams of a normalized string, packed three chars to a long
+    static long[] grams(String text) {
+        if (text.length() < GRAM) {
+            return new long[0];
+        }
+        Set<Long> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static final class IndexedText {
+
+        private final String title;
+        private final String subtitle;
+
+        IndexedText(String title, String subtitle) {
+            this.title = title;
+            this.subtitle = subtitle;
+        }
+
+        boolean contains(String needle) {
+            return title.contains(needle) || subtitle.contains(needle);
+        }
+
+        long[] grams() {
+            long[] titleGrams = BookSearchIndex.grams(title);
+            long[] subtitleGrams = BookSearchIndex.grams(subtitle);
+            return Arrays.stream(concat(titleGrams, subtitleGrams)).distinct().toArray();
+        }
+
+        private static long[] concat(long[] a, long[] b) {
+            long[] all = Arrays.copyOf(a, a.length + b.length);
+            System.arraycopy(b, 0, all, a.length, b.length);
+            return all;
+        }
+    }
+
+    // Sorted, growable array of ids; appends are O(1) because ids mostly arrive in ascending order
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int at = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0 && at < size) {
+                return;
+            }
+            int insertAt = at < 0 ? -at - 1 : at;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        // Position of the first id greater than the given one
+        int indexAfter(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            return at >= 0 ? at + 1 : -at - 1;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package services.index;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.typesafe.config.Config;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import models.dto.BookDto;
+import services.BookChangeListener;
+import utils.Isbn;
+
+/**
+ * Bloom filter over the ISBN-13 of every book ever stored, so ingestion can
+ * tell "definitely new" ISBNs apart without asking the database. Only a
+ * "might exist" answer costs an existence query.
+ *
+ * Deleted books cannot be removed from a Bloom filter; they stay as false
+ * positives, as do ISBNs beyond the expected count, which only makes more
+ * lookups fall through to the database. Never answering "new" for a stored
+ * ISBN relies on every write going through BookService.
+ */
+@Singleton
+public class IsbnBloomFilter implements BookChangeListener {
+
+    private final BloomFilter<CharSequence> filter;
+
+    @Inject
+    public IsbnBloomFilter(Config config) {
+        this(config.getLong("books.isbn-filter.expected-insertions"),
+                config.getDouble("books.isbn-filter.false-positive-rate"));
+    }
+
+    public IsbnBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        this.filter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.US_ASCII),
+                expectedInsertions, falsePositiveRate);
+    }
+
+    // False means no stored book has this ISBN-13; true means one may
+    public boolean mightContain(String isbn13) {
+        return filter.mightContain(isbn13);
+    }
+
+    public Map<String, Object> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("approximateEntries", filter.approximateElementCount());
+        metrics.put("expectedFalsePositiveRate", filter.expectedFpp());
+        return metrics;
+    }
+
+    @Override
+    public void onCreated(BookDto book) {
+        add(book);
+    }
+
+    @Override
+    public void onUpdated(BookDto previous, BookDto book) {
+        add(book);
+    }
+
+    @Override
+    public void onDeleted(BookDto book) {
+        // Bits cannot be cleared, the ISBN stays a false positive
+    }
+
+    // BloomFilter.put is safe to call concurrently
+    private void add(BookDto book) {
+        String isbn13 = Isbn.toIsbn13(book.getIsbn());
+        if (isbn13 != null) {
+            filter.put(isbn13);
+        }
+    }
+}
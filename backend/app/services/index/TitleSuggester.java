@@ -0,0 +1,300 @@
+package services.index;
+
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import models.dto.BookDto;
+import models.dto.BookSuggestion;
+import services.BookChangeListener;
+
+/**
+ * Radix trie over normalized book titles for typeahead suggestions.
+ *
+ * Each edge carries the run of characters up to the next branch or title
+ * end, so a node exists per branch point rather than per character and a
+ * title adds at most two nodes. Children are kept in parallel arrays sorted
+ * by the first character of their edge, which keeps nodes small and lets a
+ * depth-first walk yield titles in lexicographic order: the first k titles
+ * found under the prefix are the answer, so a lookup touches
+ * O(prefix length + k * depth) nodes regardless of catalog size.
+ */
+@Singleton
+public class TitleSuggester implements BookChangeListener {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final long[] NO_IDS = new long[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Node root = new Node();
+
+    // Display title per id, also needed to find the trie path on removal
+    private final Map<Long, String> titles = new HashMap<>();
+
+    @Override
+    public void onCreated(BookDto book) {
+        put(book.getId(), book.getTitle());
+    }
+
+    @Override
+    public void onUpdated(BookDto previous, BookDto book) {
+        put(book.getId(), book.getTitle());
+    }
+
+    @Override
+    public void onDeleted(BookDto book) {
+        lock.writeLock().lock();
+        try {
+            removeTitle(book.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(long id, String title) {
+        String key = normalize(title);
+        lock.writeLock().lock();
+        try {
+            removeTitle(id);
+            titles.put(id, title);
+            insert(key, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} titles starting with the prefix, in lexicographic order.
+     */
+    public List<BookSuggestion> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        List<BookSuggestion> suggestions = new ArrayList<>(Math.min(limit, 16));
+        lock.readLock().lock();
+        try {
+            Node node = find(key);
+            if (node != null) {
+                collect(node, limit, suggestions);
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return titles.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void insert(String key, long id) {
+        Node node = root;
+        int depth = 0;
+        while (depth < key.length()) {
+            Node child = node.child(key.charAt(depth));
+            if (child == null) {
+                child = new Node(key.substring(depth).toCharArray());
+                node.addChild(child);
+                node = child;
+                break;
+            }
+            int common = child.commonPrefix(key, depth);
+            if (common < child.label.length) {
+                child = node.split(child, common);
+            }
+            node = child;
+            depth += common;
+        }
+        node.addId(id);
+    }
+
+    // The node whose path starts with the key, or null; the key may end within the node's edge
+    private Node find(String key) {
+        Node node = root;
+        int depth = 0;
+        while (depth < key.length()) {
+            Node child = node.child(key.charAt(depth));
+            if (child == null) {
+                return null;
+            }
+            int common = child.commonPrefix(key, depth);
+            if (depth + common < key.length() && common < child.label.length) {
+                return null;
+            }
+            node = child;
+            depth += common;
+        }
+        return node;
+    }
+
+    private void collect(Node node, int limit, List<BookSuggestion> out) {
+        for (int i = 0; i < node.idCount && out.size() < limit; i++) {
+            out.add(new BookSuggestion(node.ids[i], titles.get(node.ids[i])));
+        }
+        for (int i = 0; i < node.children.length && out.size() < limit; i++) {
+            collect(node.children[i], limit, out);
+        }
+    }
+
+    // Caller holds the write lock
+    private void removeTitle(long id) {
+        String previous = titles.remove(id);
+        if (previous != null) {
+            remove(root, normalize(previous), 0, id);
+        }
+    }
+
+    // Unlinks children left empty and merges a child left with a single child of its own into it
+    private static void remove(Node node, String key, int depth, long id) {
+        if (depth == key.length()) {
+            node.removeId(id);
+            return;
+        }
+        Node child = node.child(key.charAt(depth));
+        if (child == null || child.commonPrefix(key, depth) < child.label.length) {
+            return;
+        }
+        remove(child, key, depth + child.label.length, id);
+        if (child.idCount == 0 && child.children.length == 0) {
+            node.removeChild(child);
+        } else if (child.idCount == 0 && child.children.length == 1) {
+            node.replaceChild(child, child.merged());
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Node {
+
+        // Characters on the edge from the parent; empty only for the root
+        private char[] label;
+
+        // Sorted by the first character of their label, which is unique among siblings
+        private char[] firsts = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+
+        // Books whose normalized title ends at this node, in ascending order
+        private long[] ids = NO_IDS;
+        private int idCount;
+
+        Node() {
+            this(NO_KEYS);
+        }
+
+        Node(char[] label) {
+            this.label = label;
+        }
+
+        Node child(char c) {
+            int at = Arrays.binarySearch(firsts, c);
+            return at >= 0 ? children[at] : null;
+        }
+
+        // Length of the common prefix of this node's label and key from offset
+        int commonPrefix(String key, int offset) {
+            int max = Math.min(label.length, key.length() - offset);
+            int i = 0;
+            while (i < max && label[i] == key.charAt(offset + i)) {
+                i++;
+            }
+            return i;
+        }
+
+        void addChild(Node child) {
+            int insertAt = -Arrays.binarySearch(firsts, child.label[0]) - 1;
+            char[] newFirsts = new char[firsts.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newFirsts[insertAt] = child.label[0];
+            newChildren[insertAt] = child;
+            System.arraycopy(firsts, insertAt, newFirsts, insertAt + 1, firsts.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        // Puts a node for the first length characters of child's label between this node and child
+        Node split(Node child, int length) {
+            Node middle = new Node(Arrays.copyOf(child.label, length));
+            child.label = Arrays.copyOfRange(child.label, length, child.label.length);
+            middle.addChild(child);
+            replaceChild(child, middle);
+            return middle;
+        }
+
+        // This node's only child, with this node's label prepended
+        Node merged() {
+            Node child = children[0];
+            char[] label = Arrays.copyOf(this.label, this.label.length + child.label.length);
+            System.arraycopy(child.label, 0, label, this.label.length, child.label.length);
+            child.label = label;
+            return child;
+        }
+
+        // The replacement starts with the same character, so the order is kept
+        void replaceChild(Node child, Node replacement) {
+            children[Arrays.binarySearch(firsts, replacement.label[0])] = replacement;
+        }
+
+        void removeChild(Node child) {
+            int at = Arrays.binarySearch(firsts, child.label[0]);
+            if (at < 0) {
+                return;
+            }
+            if (firsts.length == 1) {
+                firsts = NO_KEYS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] newFirsts = new char[firsts.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(firsts, 0, newFirsts, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(firsts, at + 1, newFirsts, at, firsts.length - at - 1);
+            System.arraycopy(children, at + 1, newChildren, at, children.length - at - 1);
+            firsts = newFirsts;
+            children = newChildren;
+        }
+
+        void addId(long id) {
+            int at = Arrays.binarySearch(ids, 0, idCount, id);
+            if (at >= 0) {
+                return;
+            }
+            int insertAt = -at - 1;
+            if (idCount == ids.length) {
+                ids = Arrays.copyOf(ids, idCount + 1);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, idCount - insertAt);
+            ids[insertAt] = id;
+            idCount++;
+        }
+
+        void removeId(long id) {
+            int at = Arrays.binarySearch(ids, 0, idCount, id);
+            if (at < 0) {
+                return;
+            }
+            System.arraycopy(ids, at + 1, ids, at, idCount - at - 1);
+            idCount--;
+            if (idCount == 0) {
+                ids = NO_IDS;
+            }
+        }
+    }
+}
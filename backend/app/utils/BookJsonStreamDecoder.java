@@ -0,0 +1,202 @@
+package utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import exceptions.BookEntryTooLargeException;
+import exceptions.BookInvalidRequestException;
+import models.request.BookCreateRequest;
+
+/**
+ * Incremental decoder for book imports. Bytes are fed as they arrive and
+ * only the tokens of the book currently being read are buffered, so memory
+ * use does not depend on the size of the document. An entry, or any single
+ * value, longer than maxEntryBytes is refused before more of it is held.
+ *
+ * Two layouts are understood:
+ * - NDJSON: every top-level value is a book
+ * - JSON: a top-level array of books, or an object with a "books" array
+ *   (the shape of data_sample.json); other fields of that object are skipped
+ *
+ * Entries that are not objects or cannot be bound are returned as null so
+ * that the caller can report them per item.
+ */
+public class BookJsonStreamDecoder {
+
+    private enum State { ROOT, WRAPPER_FIELDS, SKIP_FIELD_VALUE, BOOKS_FIELD, BOOKS, END }
+
+    private final ObjectReader reader;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final boolean ndjson;
+    private final long maxEntryBytes;
+
+    private State state = State.ROOT;
+    private boolean wrapped;
+
+    // Tokens of the entry being read, and its nesting depth
+    private TokenBuffer current;
+    private int currentDepth;
+
+    // Offset of the first byte held: the start of the entry being read, or the end of the last token
+    private long heldFrom;
+
+    // Nesting depth of an ignored wrapper field value
+    private int skipDepth;
+
+    public BookJsonStreamDecoder(ObjectMapper mapper, boolean ndjson, long maxEntryBytes) throws IOException {
+        this.reader = mapper.readerFor(BookCreateRequest.class);
+        this.parser = mapper.getFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.ndjson = ndjson;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /**
+     * Feeds the next slice of the body and returns the entries completed by it.
+     */
+    public List<BookCreateRequest> feed(byte[] bytes) {
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return drain();
+    }
+
+    /**
+     * Signals the end of the body and returns the entries that were still pending.
+     */
+    public List<BookCreateRequest> finish() {
+        feeder.endOfInput();
+        List<BookCreateRequest> entries = drain();
+        boolean complete = current == null && skipDepth == 0 && (ndjson || state == State.END);
+        if (!complete) {
+            throw new BookInvalidRequestException("Unexpected end of input");
+        }
+        return entries;
+    }
+
+    private List<BookCreateRequest> drain() {
+        List<BookCreateRequest> entries = new ArrayList<>();
+        try {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+                handle(token, entries);
+                if (current == null) {
+                    heldFrom = parser.currentLocation().getByteOffset();
+                }
+                checkHeld();
+            }
+            // The parser keeps the bytes of a value it has not finished, however long
+            checkHeld();
+        } catch (JsonEOFException e) {
+            throw new BookInvalidRequestException("Unexpected end of input", e);
+        } catch (JsonProcessingException e) {
+            throw new BookInvalidRequestException("Malformed JSON: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return entries;
+    }
+
+    private void handle(JsonToken token, List<BookCreateRequest> entries) throws IOException {
+        if (current != null) {
+            current.copyCurrentEvent(parser);
+            if (token.isStructStart()) {
+                currentDepth++;
+            } else if (token.isStructEnd() && --currentDepth == 0) {
+                entries.add(bind(current));
+                current = null;
+            }
+            return;
+        }
+        if (skipDepth > 0) {
+            if (token.isStructStart()) {
+                skipDepth++;
+            } else if (token.isStructEnd()) {
+                skipDepth--;
+            }
+            return;
+        }
+
+        switch (state) {
+            case ROOT:
+                if (ndjson) {
+                    startEntry(token, entries);
+                } else if (token == JsonToken.START_ARRAY) {
+                    state = State.BOOKS;
+                } else if (token == JsonToken.START_OBJECT) {
+                    wrapped = true;
+                    state = State.WRAPPER_FIELDS;
+                } else {
+                    throw new BookInvalidRequestException("Expected an array of books");
+                }
+                break;
+            case WRAPPER_FIELDS:
+                if (token == JsonToken.END_OBJECT) {
+                    state = State.END;
+                } else {
+                    state = "books".equals(parser.currentName()) ? State.BOOKS_FIELD : State.SKIP_FIELD_VALUE;
+                }
+                break;
+            case SKIP_FIELD_VALUE:
+                if (token.isStructStart()) {
+                    skipDepth = 1;
+                }
+                state = State.WRAPPER_FIELDS;
+                break;
+            case BOOKS_FIELD:
+                if (token != JsonToken.START_ARRAY) {
+                    throw new BookInvalidRequestException("Expected an array of books");
+                }
+                state = State.BOOKS;
+                break;
+            case BOOKS:
+                if (token == JsonToken.END_ARRAY) {
+                    state = wrapped ? State.WRAPPER_FIELDS : State.END;
+                } else {
+                    startEntry(token, entries);
+                }
+                break;
+            case END:
+                throw new BookInvalidRequestException("Unexpected content after the end of the document");
+        }
+    }
+
+    private void startEntry(JsonToken token, List<BookCreateRequest> entries) throws IOException {
+        if (!token.isStructStart()) {
+            entries.add(null);
+            return;
+        }
+        current = new TokenBuffer(parser);
+        current.copyCurrentEvent(parser);
+        currentDepth = 1;
+        heldFrom = parser.currentTokenLocation().getByteOffset();
+    }
+
+    private void checkHeld() {
+        if (parser.currentLocation().getByteOffset() - heldFrom > maxEntryBytes) {
+            throw new BookEntryTooLargeException("Book entry exceeds " + maxEntryBytes + " bytes");
+        }
+    }
+
+    private BookCreateRequest bind(TokenBuffer tokens) {
+        try (JsonParser entry = tokens.asParser()) {
+            return reader.readValue(entry);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+}
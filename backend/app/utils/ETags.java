@@ -0,0 +1,138 @@
+package utils;
+
+import play.mvc.Http;
+import play.mvc.Result;
+import play.mvc.Results;
+
+import java.util.Locale;
+
+import models.dto.BookDto;
+
+/**
+ * Strong entity tags and If-None-Match handling for conditional GETs.
+ */
+public final class ETags {
+
+    private static final String CODING_SEPARATOR = "-";
+    private static final String BOOK_PREFIX = "\"b";
+
+    private ETags() {}
+
+    /**
+     * Tag of any list view at the given catalog version. Tags are compared
+     * per URL, so the query string does not need to be part of it.
+     */
+    public static String catalog(long version) {
+        return "\"c" + Long.toString(version, 36) + "\"";
+    }
+
+    /**
+     * Tag of a single book, changed by every update of the row.
+     */
+    public static String book(BookDto book) {
+        long updatedAt = book.getUpdatedAt() != null ? book.getUpdatedAt().toEpochMilli() : 0L;
+        long version = book.getVersion() != null ? book.getVersion() : 0L;
+        return BOOK_PREFIX + book.getId() + "." + version + "." + Long.toString(updatedAt, 36) + "\"";
+    }
+
+    /**
+     * The book version named by an If-Match tag of the given book, in any
+     * format or coding; null when the header names no tag of that book.
+     */
+    public static Long versionOf(Http.Request request, long bookId) {
+        String prefix = BOOK_PREFIX + bookId + ".";
+        for (String candidate : request.header(Http.HeaderNames.IF_MATCH).orElse("").split(",")) {
+            String tag = withoutCoding(candidate.trim());
+            if (!tag.startsWith(prefix)) {
+                continue;
+            }
+            String rest = tag.substring(prefix.length());
+            int end = rest.indexOf('.');
+            try {
+                return end < 0 ? null : Long.valueOf(rest.substring(0, end));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * True when the request's If-None-Match lists the tag (or is "*").
+     * Weak tags sent back by a client match as well, as RFC 9110 allows.
+     */
+    public static boolean matches(Http.Request request, String etag) {
+        return request.header(Http.HeaderNames.IF_NONE_MATCH)
+                .map(header -> matches(header, etag))
+                .orElse(false);
+    }
+
+    static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = withoutCoding(candidate.trim());
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tag of a representation in the given format; JSON keeps the plain tag,
+     * e.g. "c1a2b3" becomes "c1a2b3+cbor".
+     */
+    public static String forFormat(String etag, MediaFormat format) {
+        if (format == MediaFormat.JSON || !etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + "+" + format.name().toLowerCase(Locale.ROOT) + "\"";
+    }
+
+    /**
+     * Format of the representation a tag was made for, by its suffix
+     * (see forFormat); JSON when it has none.
+     */
+    public static MediaFormat formatOf(String etag) {
+        String tag = withoutCoding(etag);
+        for (MediaFormat format : MediaFormat.values()) {
+            if (format != MediaFormat.JSON && tag.endsWith("+" + format.name().toLowerCase(Locale.ROOT) + "\"")) {
+                return format;
+            }
+        }
+        return MediaFormat.JSON;
+    }
+
+    /**
+     * Tag of the same representation sent with a content coding, e.g.
+     * "c1a2b3" becomes "c1a2b3-gzip" (see filters.CompressionFilter).
+     */
+    public static String withCoding(String etag, String coding) {
+        if (!etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, etag.length() - 1) + CODING_SEPARATOR + coding + "\"";
+    }
+
+    // Tags never contain the separator otherwise, so whatever follows it is a coding
+    static String withoutCoding(String etag) {
+        int separator = etag.lastIndexOf(CODING_SEPARATOR);
+        if (separator < 0 || !etag.endsWith("\"")) {
+            return etag;
+        }
+        return etag.substring(0, separator) + "\"";
+    }
+
+    public static Result notModified(String etag) {
+        return tagged(Results.status(Http.Status.NOT_MODIFIED), etag);
+    }
+
+    // no-cache lets clients keep the body but makes them revalidate it on every use
+    public static Result tagged(Result result, String etag) {
+        return result
+                .withHeader(Http.HeaderNames.ETAG, etag)
+                .withHeader(Http.HeaderNames.CACHE_CONTROL, "no-cache");
+    }
+}
@@ -0,0 +1,59 @@
+package utils;
+
+/**
+ * ISBN normalization. Books are stored and looked up by their ISBN-13 with
+ * hyphens and spaces removed, so "978-31-10914-67-5" and "9783110914675"
+ * are the same book, and an ISBN-10 matches its ISBN-13 form.
+ *
+ * Check digits of ISBN-13 input are taken as given; an ISBN-10 gets a new
+ * check digit since the 978 prefix changes it.
+ */
+public final class Isbn {
+
+    private static final String ISBN_10_PREFIX = "978";
+
+    private Isbn() {}
+
+    // The ISBN-13 digits, or null when the value is not shaped like an ISBN-10 or ISBN-13
+    public static String toIsbn13(String isbn) {
+        if (isbn == null) {
+            return null;
+        }
+        StringBuilder compact = new StringBuilder(13);
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            compact.append(Character.toUpperCase(c));
+        }
+
+        if (compact.length() == 13 && isDigits(compact, 13)) {
+            return compact.toString();
+        }
+        if (compact.length() == 10 && isDigits(compact, 9)
+                && (Character.isDigit(compact.charAt(9)) || compact.charAt(9) == 'X')) {
+            String body = ISBN_10_PREFIX + compact.substring(0, 9);
+            return body + checkDigit13(body);
+        }
+        return null;
+    }
+
+    private static boolean isDigits(CharSequence value, int count) {
+        for (int i = 0; i < count; i++) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Weights alternate 1 and 3 over the first twelve digits
+    private static char checkDigit13(String first12) {
+        int sum = 0;
+        for (int i = 0; i < 12; i++) {
+            sum += (first12.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+}
@@ -0,0 +1,156 @@
+package utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.apache.pekko.util.ByteString;
+import play.api.http.MediaRange;
+import play.libs.Json;
+import play.mvc.Http;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import exceptions.BookInvalidRequestException;
+
+/**
+ * Wire formats of the API: JSON, and for service-to-service clients the
+ * binary CBOR and Smile encodings of the same documents. Each format's
+ * mapper is a copy of Play's JSON mapper, so modules and features (dates,
+ * nulls) stay identical across formats, plus Blackbird, which replaces
+ * reflective getter calls with generated lambdas.
+ *
+ * Responses are written by an ObjectWriter prepared once for ApiResponse,
+ * straight from the objects into bytes: no JsonNode tree is built and
+ * serialized again. Jackson encodes each property name once per serializer
+ * and recycles its output buffers per thread, so a response allocates
+ * little beyond its own bytes.
+ */
+public enum MediaFormat {
+
+    JSON(Http.MimeTypes.JSON, "JSON", null),
+    CBOR("application/cbor", "CBOR", new CBORFactory()),
+    SMILE("application/x-jackson-smile", "Smile", new SmileFactory());
+
+    private final String mimeType;
+    private final String label;
+    private final JsonFactory factory;
+
+    // Created on first use, once Play has configured Json.mapper()
+    private volatile Codec codec;
+
+    MediaFormat(String mimeType, String label, JsonFactory factory) {
+        this.mimeType = mimeType;
+        this.label = label;
+        this.factory = factory;
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public boolean isBinary() {
+        return factory != null;
+    }
+
+    public ObjectMapper mapper() {
+        return codec().mapper;
+    }
+
+    public ByteString write(ApiResponse<?> response) {
+        try {
+            // The array is never touched again, so it is wrapped rather than copied
+            return ByteString.fromArrayUnsafe(codec().responseWriter.writeValueAsBytes(response));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Binds a body straight from its bytes, with a reader prepared once per
+     * type, without going through a tree.
+     */
+    public <T> T read(ByteString bytes, Class<T> type) {
+        ObjectReader reader = codec().readers.computeIfAbsent(type, mapper()::readerFor);
+        try {
+            T value = reader.readValue(bytes.iterator().asInputStream());
+            if (value == null) {
+                // A literal null binds to nothing
+                throw new BookInvalidRequestException("Invalid " + label + " data");
+            }
+            return value;
+        } catch (IOException e) {
+            throw new BookInvalidRequestException("Invalid " + label + " data");
+        }
+    }
+
+    public JsonNode readTree(ByteString bytes) {
+        try {
+            return mapper().readTree(bytes.toArray());
+        } catch (IOException e) {
+            throw new BookInvalidRequestException("Invalid " + label + " data");
+        }
+    }
+
+    private Codec codec() {
+        Codec current = codec;
+        if (current == null) {
+            // Two threads may both build one; either is as good
+            ObjectMapper mapper = factory == null ? Json.mapper().copy() : Json.mapper().copyWith(factory);
+            mapper.registerModule(new BlackbirdModule());
+            current = new Codec(mapper);
+            codec = current;
+        }
+        return current;
+    }
+
+    /**
+     * The format the client prefers by its Accept header; JSON unless CBOR
+     * or Smile ranks above it.
+     */
+    public static MediaFormat negotiate(Http.RequestHeader request) {
+        // Ordered by quality, most preferred first
+        for (MediaRange range : request.acceptedTypes()) {
+            for (MediaFormat format : values()) {
+                if (range.accepts(format.mimeType)) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * The format of a request body, from its Content-Type.
+     */
+    public static MediaFormat ofBody(Http.RequestHeader request) {
+        Optional<String> contentType = request.contentType().map(type -> type.toLowerCase(Locale.ROOT));
+        for (MediaFormat format : values()) {
+            if (format.isBinary() && contentType.map(format.mimeType::equals).orElse(false)) {
+                return format;
+            }
+        }
+        return JSON;
+    }
+
+    private static final class Codec {
+
+        private final ObjectMapper mapper;
+        private final ObjectWriter responseWriter;
+        private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+        Codec(ObjectMapper mapper) {
+            this.mapper = mapper;
+            this.responseWriter = mapper.writerFor(ApiResponse.class);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import exceptions.BookInvalidRequestException;
+
+/**
+ * Opaque keyset pagination cursor. It carries the id of the last book of a
+ * page, and for listings sorted by another column also that sort and the
+ * last book's sort key; clients must treat it as an opaque string.
+ */
+public final class PageCursor {
+
+    private static final String PREFIX = "id:";
+    private static final String SORTED_PREFIX = "sort:";
+    private static final String SEPARATOR = "|";
+
+    private PageCursor() {}
+
+    public static String encode(long lastId) {
+        return raw(PREFIX + lastId);
+    }
+
+    public static String encode(String sort, String lastKey, long lastId) {
+        return raw(SORTED_PREFIX + sort + SEPARATOR + lastId + SEPARATOR + lastKey);
+    }
+
+    // Returns the id to continue after; a missing cursor starts at the beginning
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String raw = decodeRaw(cursor);
+            if (!raw.startsWith(PREFIX)) {
+                throw new BookInvalidRequestException("Invalid cursor");
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BookInvalidRequestException("Invalid cursor");
+        }
+    }
+
+    // Sort key and id to continue after; the cursor must come from a listing with the same sort
+    public static Keyset decode(String cursor, String sort) {
+        try {
+            String raw = decodeRaw(cursor);
+            String prefix = SORTED_PREFIX + sort + SEPARATOR;
+            if (!raw.startsWith(prefix)) {
+                throw new BookInvalidRequestException("Invalid cursor");
+            }
+            // The key goes last, so it may itself contain the separator
+            String[] parts = raw.substring(prefix.length()).split("\\" + SEPARATOR, 2);
+            if (parts.length != 2) {
+                throw new BookInvalidRequestException("Invalid cursor");
+            }
+            return new Keyset(parts[1], Long.parseLong(parts[0]));
+        } catch (IllegalArgumentException e) {
+            throw new BookInvalidRequestException("Invalid cursor");
+        }
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeRaw(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    public static final class Keyset {
+
+        private final String key;
+        private final long id;
+
+        Keyset(String key, long id) {
+            this.key = key;
+            this.id = id;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getId() {
+            return id;
+        }
+    }
+}
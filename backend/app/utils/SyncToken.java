@@ -0,0 +1,63 @@
+package utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import exceptions.BookInvalidRequestException;
+
+/**
+ * Opaque token of GET /api/books/changes: the change number and id the next
+ * call continues after, and when the client was last caught up, which
+ * decides whether the tombstones it needs are still kept. Clients must
+ * treat it as an opaque string.
+ */
+public final class SyncToken {
+
+    private static final String PREFIX = "changes:";
+
+    private final Instant issuedAt;
+    private final long changeSeq;
+    private final long id;
+
+    public SyncToken(Instant issuedAt, long changeSeq, long id) {
+        this.issuedAt = issuedAt;
+        this.changeSeq = changeSeq;
+        this.id = id;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String encode() {
+        String raw = PREFIX + changeSeq + ":" + id + ":" + issuedAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SyncToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new BookInvalidRequestException("Invalid sync token");
+            }
+            // The instant itself contains colons, so it goes last
+            String[] parts = raw.substring(PREFIX.length()).split(":", 3);
+            if (parts.length != 3) {
+                throw new BookInvalidRequestException("Invalid sync token");
+            }
+            return new SyncToken(Instant.parse(parts[2]), Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BookInvalidRequestException("Invalid sync token");
+        }
+    }
+}
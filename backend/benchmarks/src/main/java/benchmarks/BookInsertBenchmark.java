@@ -0,0 +1,105 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import models.Book;
+
+/**
+ * Insert throughput on H2 for the old IDENTITY key (one statement and key
+ * read per row, no batching) against book_seq with pooled-lo (ids assigned
+ * in memory, inserts sent in JDBC batches of 50). Each invocation inserts
+ * one transaction of BATCH books the way BookServiceImpl.createAll does, so
+ * the score is books per millisecond.
+ *
+ * sbt "benchmarks/Jmh/run BookInsertBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookInsertBenchmark {
+
+    private static final int BATCH = 1000;
+
+    private static final int JDBC_BATCH_SIZE = 50;
+
+    private EntityManagerFactory emf;
+    private Random random;
+    private int sequence;
+
+    @Setup
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:insert;DB_CLOSE_DELAY=-1");
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("jakarta.persistence.nonJtaDataSource", dataSource);
+        properties.put("jakarta.persistence.sharedCache.mode", "NONE");
+        properties.put("hibernate.cache.use_second_level_cache", "false");
+        properties.put("hibernate.cache.use_query_cache", "false");
+        properties.put("hibernate.show_sql", "false");
+        properties.put("hibernate.loaded_classes", List.of(IdentityBook.class));
+        emf = Persistence.createEntityManagerFactory("defaultPersistenceUnit", properties);
+        random = new Random(42);
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void identity() {
+        insert(i -> new IdentityBook(String.format("979%010d", i), Titles.random(random), Titles.random(random), 1950 + i % 75));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void pooledSequence() {
+        insert(i -> new Book(String.format("978%010d", i), Titles.random(random), Titles.random(random), 1950 + i % 75,
+                Book.BookStatus.PENDING));
+    }
+
+    private void insert(Function<Integer, Object> newBook) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            for (int i = 0; i < BATCH; i++) {
+                em.persist(newBook.apply(sequence++));
+                if ((i + 1) % JDBC_BATCH_SIZE == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+    }
+}
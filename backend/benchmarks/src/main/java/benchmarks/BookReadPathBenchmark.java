@@ -0,0 +1,121 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import models.Book;
+import models.dto.BookDto;
+
+/**
+ * One page of books read the old way (managed entities in a read-write
+ * transaction, copied into DTOs) against the read-only path (a constructor
+ * projection outside a transaction). Caches are off so both hit H2.
+ *
+ * Run with the GC profiler to compare allocation per page:
+ * sbt "benchmarks/Jmh/run -prof gc BookReadPathBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookReadPathBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    private static final String SELECT_BOOK_DTO = "SELECT new models.dto.BookDto(b.id, b.isbn, b.title, b.subtitle, "
+            + "b.copyrightYear, b.status, b.createdAt, b.updatedAt, b.version) FROM Book b";
+
+    @Param({"50", "1000"})
+    public int pageSize;
+
+    private EntityManagerFactory emf;
+
+    @Setup
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:read-path;DB_CLOSE_DELAY=-1");
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("jakarta.persistence.nonJtaDataSource", dataSource);
+        properties.put("jakarta.persistence.sharedCache.mode", "NONE");
+        properties.put("hibernate.cache.use_second_level_cache", "false");
+        properties.put("hibernate.cache.use_query_cache", "false");
+        properties.put("hibernate.show_sql", "false");
+        emf = Persistence.createEntityManagerFactory("defaultPersistenceUnit", properties);
+
+        Random random = new Random(42);
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            em.persist(new Book(String.format("978%010d", i), Titles.random(random), Titles.random(random),
+                    1950 + random.nextInt(75), Book.BookStatus.values()[i % 3]));
+            if (i % 50 == 49) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.getTransaction().commit();
+        em.close();
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<BookDto> managedEntities() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<BookDto> page = em.createQuery("SELECT b FROM Book b WHERE b.id > :after ORDER BY b.id", Book.class)
+                    .setParameter("after", 0L)
+                    .setMaxResults(pageSize)
+                    .getResultList()
+                    .stream()
+                    .map(BookDto::new)
+                    .collect(Collectors.toList());
+            em.getTransaction().commit();
+            return page;
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public List<BookDto> readOnlyProjection() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery(SELECT_BOOK_DTO + " WHERE b.id > :after ORDER BY b.id", BookDto.class)
+                    .setParameter("after", 0L)
+                    .setMaxResults(pageSize)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.pekko.util.ByteString;
+import play.libs.Json;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import filters.Compressor;
+import models.dto.BookDto;
+import utils.ApiResponse;
+
+/**
+ * CPU cost of compressing a getAll-style response of the given number of
+ * books, with a Deflater from the pool against a fresh one per response.
+ * Bytes on the wire for each coding are printed once per parameter set.
+ *
+ * sbt "benchmarks/Jmh/run CompressionBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    private static final int LEVEL = 6;
+
+    @Param({"10", "100", "1000"})
+    public int books;
+
+    @Param({"gzip", "deflate"})
+    public String coding;
+
+    private ByteString body;
+    private Compressor pooled;
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        List<BookDto> page = new ArrayList<>();
+        for (int i = 0; i < books; i++) {
+            BookDto book = new BookDto();
+            book.setId((long) i + 1);
+            book.setIsbn(String.format("978%010d", i));
+            book.setTitle(Titles.random(random));
+            book.setSubtitle(Titles.random(random));
+            book.setCopyrightYear(1950 + random.nextInt(75));
+            book.setStatus(i % 3 == 0 ? "APPROVED" : "PENDING");
+            book.setCreatedAt(Instant.ofEpochSecond(1_700_000_000L + i));
+            book.setUpdatedAt(Instant.ofEpochSecond(1_700_000_000L + i));
+            book.setVersion(0L);
+            page.add(book);
+        }
+        body = ByteString.fromArrayUnsafe(Json.mapper().writeValueAsBytes(ApiResponse.success(page)));
+        pooled = new Compressor(LEVEL, 4);
+
+        int compressed = pooled.compress(body, coding).size();
+        System.out.printf("%n%d books: %d bytes as identity, %d bytes as %s (%.1f%%)%n",
+                books, body.size(), compressed, coding, 100.0 * compressed / body.size());
+    }
+
+    @Benchmark
+    public ByteString pooledDeflater() {
+        return pooled.compress(body, coding);
+    }
+
+    @Benchmark
+    public ByteString freshDeflater() {
+        // A new Compressor starts with an empty pool, so this sets up a Deflater per response
+        return new Compressor(LEVEL, 1).compress(body, coding);
+    }
+}
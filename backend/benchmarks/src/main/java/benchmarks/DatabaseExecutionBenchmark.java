@@ -0,0 +1,88 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.pekko.actor.ActorSystem;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import services.DatabaseExecutionContext;
+
+/**
+ * Platform-thread dispatcher against virtual threads for blocking database
+ * calls. Each of the 1024 benchmark threads is a client that submits a call
+ * and waits for it, so throughput and the sampled latency percentiles
+ * (including p0.99) are per request.
+ *
+ * A call holds one of poolSize "connections" for callMicros, standing in
+ * for a JDBC round trip.
+ *
+ * sbt "benchmarks/Jmh/run DatabaseExecutionBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(1024)
+@Fork(1)
+public class DatabaseExecutionBenchmark {
+
+    @Param({"dispatcher", "virtual-threads"})
+    public String mode;
+
+    @Param({"10"})
+    public int poolSize;
+
+    @Param({"500"})
+    public long callMicros;
+
+    private ActorSystem actorSystem;
+    private DatabaseExecutionContext dbExecutionContext;
+
+    @Setup
+    public void setUp() {
+        Config config = ConfigFactory.parseString(
+                "database.dispatcher {\n"
+                + "  executor = \"thread-pool-executor\"\n"
+                + "  throughput = 1\n"
+                + "  thread-pool-executor.fixed-pool-size = " + poolSize + "\n"
+                + "}\n"
+                // Every client may be waiting at once, none should be rejected
+                + "database.max-queue = 100000\n"
+                + "database.execution-mode = " + mode)
+                .withFallback(ConfigFactory.defaultReference());
+        actorSystem = ActorSystem.create("database-benchmark", config);
+        dbExecutionContext = new DatabaseExecutionContext(actorSystem, config);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        System.out.printf("%n%s: %s%n", mode, dbExecutionContext.metrics());
+        actorSystem.terminate();
+        actorSystem.getWhenTerminated().toCompletableFuture().get(30, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void call() {
+        CompletableFuture.runAsync(
+                () -> LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(callMicros)),
+                dbExecutionContext).join();
+    }
+}
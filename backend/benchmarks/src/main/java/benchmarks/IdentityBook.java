@@ -0,0 +1,45 @@
+package benchmarks;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * A book mapped the way models.Book was before it moved to book_seq: an
+ * IDENTITY key, which Hibernate must read back after every single insert.
+ */
+@Entity
+@Table(name = "identity_books")
+public class IdentityBook {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String isbn;
+
+    @Column(nullable = false)
+    private String title;
+
+    private String subtitle;
+
+    @Column(name = "copyright_year")
+    private Integer copyrightYear;
+
+    public IdentityBook() {}
+
+    public IdentityBook(String isbn, String title, String subtitle, Integer copyrightYear) {
+        this.isbn = isbn;
+        this.title = title;
+        this.subtitle = subtitle;
+        this.copyrightYear = copyrightYear;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,95 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import models.dto.BookDto;
+import utils.ApiResponse;
+import utils.MediaFormat;
+
+/**
+ * Encoding a page of books in the ApiResponse envelope, and decoding it
+ * back into BookDtos as a service-to-service consumer would, in JSON, CBOR
+ * and Smile. Payload sizes are printed once per parameter set.
+ *
+ * sbt "benchmarks/Jmh/run MediaFormatBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MediaFormatBenchmark {
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public MediaFormat format;
+
+    @Param({"100", "1000"})
+    public int books;
+
+    private ApiResponse<List<BookDto>> response;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        List<BookDto> page = new ArrayList<>();
+        for (int i = 0; i < books; i++) {
+            BookDto book = new BookDto();
+            book.setId((long) i + 1);
+            book.setIsbn(String.format("978%010d", i));
+            book.setTitle(Titles.random(random));
+            book.setSubtitle(Titles.random(random));
+            book.setCopyrightYear(1950 + random.nextInt(75));
+            book.setStatus(i % 3 == 0 ? "APPROVED" : "PENDING");
+            book.setCreatedAt(Instant.ofEpochSecond(1_700_000_000L + i));
+            book.setUpdatedAt(Instant.ofEpochSecond(1_700_000_000L + i));
+            book.setVersion(0L);
+            page.add(book);
+        }
+        response = ApiResponse.success(page);
+        writer = format.mapper().writer();
+        reader = format.mapper().readerFor(Envelope.class);
+        encoded = writer.writeValueAsBytes(response);
+
+        System.out.printf("%n%d books as %s: %d bytes%n", books, format, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return writer.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public Envelope decode() throws Exception {
+        return reader.readValue(encoded);
+    }
+
+    // What a client binds the envelope to
+    public static class Envelope {
+        public boolean success;
+        public String message;
+        public List<BookDto> data;
+    }
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.apache.pekko.util.ByteString;
+import play.libs.Json;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import models.dto.BookDto;
+import utils.ApiResponse;
+import utils.MediaFormat;
+
+/**
+ * A response body the old way (Json.toJson builds a JsonNode tree, which
+ * is then serialized) against MediaFormat.write (straight from the objects
+ * with a prepared ObjectWriter and Blackbird).
+ *
+ * Run with the GC profiler to compare allocation per response
+ * (gc.alloc.rate.norm):
+ * sbt "benchmarks/Jmh/run -prof gc ResponseWriteBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseWriteBenchmark {
+
+    @Param({"1", "50", "1000"})
+    public int books;
+
+    private ApiResponse<List<BookDto>> response;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<BookDto> page = new ArrayList<>();
+        for (int i = 0; i < books; i++) {
+            BookDto book = new BookDto();
+            book.setId((long) i + 1);
+            book.setIsbn(String.format("978%010d", i));
+            book.setTitle(Titles.random(random));
+            book.setSubtitle(Titles.random(random));
+            book.setCopyrightYear(1950 + random.nextInt(75));
+            book.setStatus(i % 3 == 0 ? "APPROVED" : "PENDING");
+            book.setCreatedAt(Instant.ofEpochSecond(1_700_000_000L + i));
+            book.setUpdatedAt(Instant.ofEpochSecond(1_700_000_000L + i));
+            book.setVersion(0L);
+            page.add(book);
+        }
+        response = ApiResponse.success(page);
+    }
+
+    @Benchmark
+    public ByteString viaTree() throws Exception {
+        // What Results.ok(Json.toJson(response)) did: build the tree, then serialize it
+        return ByteString.fromArrayUnsafe(Json.mapper().writeValueAsBytes(Json.toJson(response)));
+    }
+
+    @Benchmark
+    public ByteString direct() {
+        return MediaFormat.JSON.write(response);
+    }
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import models.dto.BookSuggestion;
+import services.index.TitleSuggester;
+
+/**
+ * Typeahead lookup latency of {@link TitleSuggester}, plus the retained heap
+ * per title printed once per trial.
+ *
+ * sbt "benchmarks/Jmh/run TitleSuggesterBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TitleSuggesterBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int titles;
+
+    @Param({"10"})
+    public int limit;
+
+    private TitleSuggester suggester;
+    private String[] prefixes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        long before = usedHeap();
+
+        suggester = new TitleSuggester();
+        for (int i = 0; i < titles; i++) {
+            suggester.put(i + 1, Titles.random(random));
+        }
+
+        long after = usedHeap();
+        System.out.printf("%nTitleSuggester: %d titles, ~%d bytes per title%n",
+                titles, (after - before) / titles);
+
+        prefixes = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String title = Titles.random(random);
+            prefixes[i] = title.substring(0, Math.min(title.length(), 1 + random.nextInt(6)));
+        }
+    }
+
+    @Benchmark
+    public List<BookSuggestion> suggest() {
+        return suggester.suggest(prefixes[next++ & (prefixes.length - 1)], limit);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
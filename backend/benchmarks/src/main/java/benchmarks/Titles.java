@@ -0,0 +1,31 @@
+package benchmarks;
+
+import java.util.Random;
+
+/**
+ * Synthetic, catalog-like book titles for benchmarks.
+ */
+final class Titles {
+
+    private static final String[] WORDS = {
+        "the", "a", "of", "and", "history", "theory", "crime", "architecture", "fire", "new", "york",
+        "great", "death", "penalty", "qualitative", "interviews", "equality", "within", "our", "lifetimes",
+        "why", "matters", "general", "introduction", "modern", "ancient", "world", "city", "law", "society",
+        "science", "politics", "economy", "war", "peace", "art", "music", "language", "mind", "nature"
+    };
+
+    private Titles() {}
+
+    static String random(Random random) {
+        int words = 2 + random.nextInt(6);
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                title.append(' ');
+            }
+            String word = WORDS[random.nextInt(WORDS.length)];
+            title.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+        }
+        return title.toString();
+    }
+}
@@ -2,7 +2,22 @@ import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
 
 import controllers.BookControllerTest;
+import controllers.parsers.BookImportBodyParserTest;
+import controllers.parsers.TypedBodyParserTest;
+import filters.CompressionFilterTest;
+import services.BookChangeDispatcherTest;
+import services.BookChangeFeedTest;
+import services.BookEventHubTest;
+import services.BookPersistenceTest;
 import services.BookServiceImplTest;
+import services.BookServiceQueryTest;
+import services.BookStatisticsTest;
+import services.DatabaseExecutionContextTest;
+import services.index.BookSearchIndexTest;
+import services.index.TitleSuggesterTest;
+import utils.BookJsonStreamDecoderTest;
+import utils.IsbnTest;
+import utils.MediaFormatTest;
 
 /**
  * Test Suite that runs all tests in the application.
@@ -12,9 +27,28 @@ import services.BookServiceImplTest;
 @SelectClasses({
     // Service Layer Tests
     BookServiceImplTest.class,
+    BookPersistenceTest.class,
+    BookServiceQueryTest.class,
+    BookChangeFeedTest.class,
+    BookChangeDispatcherTest.class,
+    DatabaseExecutionContextTest.class,
+    BookStatisticsTest.class,
+    BookEventHubTest.class,
+    BookSearchIndexTest.class,
+    TitleSuggesterTest.class,
     
     // Controller Layer Tests
-    BookControllerTest.class
+    BookControllerTest.class,
+    TypedBodyParserTest.class,
+    BookImportBodyParserTest.class,
+
+    // Filter Tests
+    CompressionFilterTest.class,
+
+    // Utility Tests
+    BookJsonStreamDecoderTest.class,
+    IsbnTest.class,
+    MediaFormatTest.class
 })
 public class TestSuite {
     // Test suite class - no additional implementation needed
@@ -1,12 +1,15 @@
 package controllers;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static play.mvc.Http.HeaderNames.*;
 import static play.mvc.Http.Status.*;
 import static play.test.Helpers.*;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +17,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.apache.pekko.actor.ActorSystem;
+import org.apache.pekko.stream.Materializer;
+
 import play.Application;
 import play.inject.guice.GuiceApplicationBuilder;
 import play.inject.Bindings;
@@ -22,15 +28,38 @@ import play.mvc.Http;
 import play.mvc.Result;
 import play.test.WithApplication;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
+import models.dto.BookBulkResult;
+import models.dto.BookChanges;
 import models.dto.BookDto;
+import models.dto.BookSuggestion;
+import models.dto.BookInsertResult;
+import models.dto.BookPage;
+import models.request.BookCreateRequest;
+import models.request.BookFilter;
+import models.request.BookSort;
+import models.request.OnConflict;
+import services.BookChangeFeed;
+import services.BookEventHub;
 import services.BookService;
+import services.BookStatistics;
+import services.CatalogVersion;
+import services.DatabaseExecutionContext;
+import exceptions.BookChangesExpiredException;
+import exceptions.BookConflictException;
 import exceptions.BookNotFoundException;
 import exceptions.BookInvalidRequestException;
+import exceptions.BookVersionRequiredException;
+import utils.MediaFormat;
 
 @ExtendWith(MockitoExtension.class)
 public class BookControllerTest extends WithApplication {
@@ -38,7 +67,16 @@ public class BookControllerTest extends WithApplication {
     @Mock
     private BookService bookService;
 
+    @Mock
+    private DatabaseExecutionContext dbExecutionContext;
+
+    @Mock
+    private BookChangeFeed bookChangeFeed;
+
     private BookController controller;
+    private CatalogVersion catalogVersion = new CatalogVersion();
+    private BookStatistics bookStatistics = new BookStatistics();
+    private BookEventHub bookEventHub = new BookEventHub(16, 0);
     private BookDto testBookDto;
     private ObjectMapper objectMapper;
 
@@ -57,10 +95,36 @@ public class BookControllerTest extends WithApplication {
             java.lang.reflect.Field field = BookController.class.getDeclaredField("bookService");
             field.setAccessible(true);
             field.set(controller, bookService);
+
+            java.lang.reflect.Field executionContext = BookController.class.getDeclaredField("dbExecutionContext");
+            executionContext.setAccessible(true);
+            executionContext.set(controller, dbExecutionContext);
+
+            java.lang.reflect.Field version = BookController.class.getDeclaredField("catalogVersion");
+            version.setAccessible(true);
+            version.set(controller, catalogVersion);
+
+            java.lang.reflect.Field statistics = BookController.class.getDeclaredField("bookStatistics");
+            statistics.setAccessible(true);
+            statistics.set(controller, bookStatistics);
+
+            java.lang.reflect.Field events = BookController.class.getDeclaredField("bookEventHub");
+            events.setAccessible(true);
+            events.set(controller, bookEventHub);
+
+            java.lang.reflect.Field changeFeed = BookController.class.getDeclaredField("bookChangeFeed");
+            changeFeed.setAccessible(true);
+            changeFeed.set(controller, bookChangeFeed);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
 
+        // Run database work inline on the test thread
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(dbExecutionContext).execute(any(Runnable.class));
+
         objectMapper = new ObjectMapper();
         
         // Setup test data
@@ -96,8 +160,7 @@ public class BookControllerTest extends WithApplication {
                 .bodyJson(Json.parse(requestBody));
 
         // When
-        CompletionStage<Result> resultStage = controller.create(request.build());
-        Result result = resultStage.toCompletableFuture().get();
+        Result result = route(app, request);
 
         // Then
         assertThat(result.status()).isEqualTo(OK);
@@ -115,11 +178,11 @@ public class BookControllerTest extends WithApplication {
         Http.RequestBuilder request = new Http.RequestBuilder()
                 .method(POST)
                 .uri("/api/books")
-                .bodyText("invalid json");
+                .bodyRaw("invalid json".getBytes(StandardCharsets.UTF_8))
+                .header(CONTENT_TYPE, "application/json");
 
         // When
-        CompletionStage<Result> resultStage = controller.create(request.build());
-        Result result = resultStage.toCompletableFuture().get();
+        Result result = route(app, request);
 
         // Then
         assertThat(result.status()).isEqualTo(BAD_REQUEST);
@@ -129,6 +192,23 @@ public class BookControllerTest extends WithApplication {
         assertThat(responseJson.get("message").asText()).isEqualTo("Invalid JSON data");
     }
 
+    @Test
+    void testCreate_BodyTooLarge() throws Exception {
+        // Given: over books.request.max-length
+        String requestBody = "{\"title\": \"" + "x".repeat(70 * 1024) + "\"}";
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(POST)
+                .uri("/api/books")
+                .bodyJson(Json.parse(requestBody));
+
+        // When
+        Result result = route(app, request);
+
+        // Then: refused by the body parser, the service is never called
+        assertThat(result.status()).isEqualTo(REQUEST_ENTITY_TOO_LARGE);
+        verify(bookService, never()).create(any());
+    }
+
     @Test
     void testCreate_ServiceException() throws Exception {
         // Given
@@ -150,8 +230,7 @@ public class BookControllerTest extends WithApplication {
                 .bodyJson(Json.parse(requestBody));
 
         // When
-        CompletionStage<Result> resultStage = controller.create(request.build());
-        Result result = resultStage.toCompletableFuture().get();
+        Result result = route(app, request);
 
         // Then
         assertThat(result.status()).isEqualTo(BAD_REQUEST);
@@ -168,7 +247,7 @@ public class BookControllerTest extends WithApplication {
         when(bookService.getOne(bookId)).thenReturn(testBookDto);
 
         // When
-        CompletionStage<Result> resultStage = controller.getOne(bookId);
+        CompletionStage<Result> resultStage = controller.getOne(fakeRequest().build(), bookId);
         Result result = resultStage.toCompletableFuture().get();
 
         // Then
@@ -182,6 +261,23 @@ public class BookControllerTest extends WithApplication {
         verify(bookService).getOne(bookId);
     }
 
+    @Test
+    void testGetByIsbn_Success() throws Exception {
+        // Given
+        when(bookService.getByIsbn("0-306-40615-2")).thenReturn(testBookDto);
+
+        // When
+        CompletionStage<Result> resultStage = controller.getByIsbn(fakeRequest().build(), "0-306-40615-2");
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(OK);
+        assertThat(result.header(ETAG)).isPresent();
+
+        JsonNode responseJson = Json.parse(contentAsString(result));
+        assertThat(responseJson.get("data").get("id").asLong()).isEqualTo(1L);
+    }
+
     @Test
     void testGetOne_NotFound() throws Exception {
         // Given
@@ -189,7 +285,7 @@ public class BookControllerTest extends WithApplication {
         when(bookService.getOne(bookId)).thenThrow(new BookNotFoundException("Book not found"));
 
         // When
-        CompletionStage<Result> resultStage = controller.getOne(bookId);
+        CompletionStage<Result> resultStage = controller.getOne(fakeRequest().build(), bookId);
         Result result = resultStage.toCompletableFuture().get();
 
         // Then
@@ -200,14 +296,78 @@ public class BookControllerTest extends WithApplication {
         assertThat(responseJson.get("message").asText()).isEqualTo("Book not found");
     }
 
+    @Test
+    void testGetOne_DatabaseQueueFull() throws Exception {
+        // Given
+        doThrow(new RejectedExecutionException("Database queue is full"))
+                .when(dbExecutionContext).execute(any(Runnable.class));
+
+        // When
+        CompletionStage<Result> resultStage = controller.getOne(fakeRequest().build(), "1");
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(SERVICE_UNAVAILABLE);
+        assertThat(result.header("Retry-After")).contains("1");
+        verify(bookService, never()).getOne(any());
+    }
+
+    @Test
+    void testGetOne_NotModified() throws Exception {
+        // Given
+        when(bookService.getOne("1")).thenReturn(testBookDto);
+        Result first = controller.getOne(fakeRequest().build(), "1").toCompletableFuture().get();
+        String etag = first.header(ETAG).orElseThrow();
+
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(GET)
+                .uri("/api/books/1")
+                .header(IF_NONE_MATCH, etag);
+
+        // When
+        Result result = controller.getOne(request.build(), "1").toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(NOT_MODIFIED);
+        assertThat(result.header(ETAG)).contains(etag);
+    }
+
+    @Test
+    void testGetAll_NotModifiedUntilCatalogChanges() throws Exception {
+        // Given
+        when(bookService.getAll()).thenReturn(Arrays.asList(testBookDto));
+        Result first = controller.getAll(fakeRequest(GET, "/api/books").build()).toCompletableFuture().get();
+        String etag = first.header(ETAG).orElseThrow();
+
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(GET)
+                .uri("/api/books")
+                .header(IF_NONE_MATCH, etag);
+
+        // When
+        Result unchanged = controller.getAll(request.build()).toCompletableFuture().get();
+        catalogVersion.onCreated(testBookDto);
+        Result changed = controller.getAll(request.build()).toCompletableFuture().get();
+
+        // Then
+        assertThat(unchanged.status()).isEqualTo(NOT_MODIFIED);
+        assertThat(changed.status()).isEqualTo(OK);
+        assertThat(changed.header(ETAG)).isPresent().isNotEqualTo(first.header(ETAG));
+        verify(bookService, times(2)).getAll();
+    }
+
     @Test
     void testGetAll_Success() throws Exception {
         // Given
         List<BookDto> books = Arrays.asList(testBookDto);
         when(bookService.getAll()).thenReturn(books);
 
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(GET)
+                .uri("/api/books");
+
         // When
-        CompletionStage<Result> resultStage = controller.getAll();
+        CompletionStage<Result> resultStage = controller.getAll(request.build());
         Result result = resultStage.toCompletableFuture().get();
 
         // Then
@@ -227,8 +387,12 @@ public class BookControllerTest extends WithApplication {
         // Given
         when(bookService.getAll()).thenReturn(Arrays.asList());
 
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(GET)
+                .uri("/api/books");
+
         // When
-        CompletionStage<Result> resultStage = controller.getAll();
+        CompletionStage<Result> resultStage = controller.getAll(request.build());
         Result result = resultStage.toCompletableFuture().get();
 
         // Then
@@ -267,8 +431,7 @@ public class BookControllerTest extends WithApplication {
                 .bodyJson(Json.parse(requestBody));
 
         // When
-        CompletionStage<Result> resultStage = controller.update(request.build());
-        Result result = resultStage.toCompletableFuture().get();
+        Result result = route(app, request);
 
         // Then
         assertThat(result.status()).isEqualTo(OK);
@@ -303,8 +466,7 @@ public class BookControllerTest extends WithApplication {
                 .bodyJson(Json.parse(requestBody));
 
         // When
-        CompletionStage<Result> resultStage = controller.update(request.build());
-        Result result = resultStage.toCompletableFuture().get();
+        Result result = route(app, request);
 
         // Then
         assertThat(result.status()).isEqualTo(NOT_FOUND);
@@ -314,6 +476,70 @@ public class BookControllerTest extends WithApplication {
         assertThat(responseJson.get("message").asText()).isEqualTo("Book not found");
     }
 
+    @Test
+    void testUpdate_StaleVersion() throws Exception {
+        // Given
+        String requestBody = """
+            {
+                "id": 1,
+                "title": "Updated Book",
+                "version": 3
+            }
+            """;
+
+        when(bookService.update(any())).thenThrow(new BookConflictException("Book 1 was modified concurrently"));
+
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method("PATCH")
+                .uri("/api/books")
+                .bodyJson(Json.parse(requestBody));
+
+        // When
+        Result result = route(app, request);
+
+        // Then
+        assertThat(result.status()).isEqualTo(CONFLICT);
+
+        JsonNode responseJson = Json.parse(contentAsString(result));
+        assertThat(responseJson.get("success").asBoolean()).isFalse();
+        verify(bookService).update(argThat(update -> update.getVersion() == 3L));
+    }
+
+    @Test
+    void testUpdate_VersionTakenFromIfMatch() throws Exception {
+        // Given: the tag of version 4 as served in CBOR and gzip-coded
+        when(bookService.update(any())).thenReturn(testBookDto);
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method("PATCH")
+                .uri("/api/books")
+                .header(IF_MATCH, "\"b1.4.lx2k+cbor-gzip\"")
+                .bodyJson(Json.parse("{\"id\": 1, \"title\": \"Updated Book\"}"));
+
+        // When
+        Result result = route(app, request);
+
+        // Then
+        assertThat(result.status()).isEqualTo(OK);
+        verify(bookService).update(argThat(update -> update.getVersion() == 4L));
+    }
+
+    @Test
+    void testUpdate_WithoutVersion_PreconditionRequired() throws Exception {
+        // Given
+        when(bookService.update(any())).thenThrow(new BookVersionRequiredException("Book version is required"));
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method("PATCH")
+                .uri("/api/books")
+                .bodyJson(Json.parse("{\"id\": 1, \"title\": \"Updated Book\"}"));
+
+        // When
+        Result result = route(app, request);
+
+        // Then
+        assertThat(result.status()).isEqualTo(PRECONDITION_REQUIRED);
+        verify(bookService).update(argThat(update -> update.getVersion() == null));
+    }
+
     @Test
     void testDelete_Success() throws Exception {
         // Given
@@ -321,7 +547,10 @@ public class BookControllerTest extends WithApplication {
         doNothing().when(bookService).delete(bookId);
 
         // When
-        CompletionStage<Result> resultStage = controller.delete(bookId);
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(DELETE)
+                .uri("/api/books/" + bookId);
+        CompletionStage<Result> resultStage = controller.delete(request.build(), bookId);
         Result result = resultStage.toCompletableFuture().get();
 
         // Then
@@ -334,6 +563,131 @@ public class BookControllerTest extends WithApplication {
         verify(bookService).delete(bookId);
     }
 
+    @Test
+    void testBulkDelete_ReturnsAffectedAndMissing() throws Exception {
+        // Given
+        String requestBody = """
+            {
+                "ids": [1, 2]
+            }
+            """;
+
+        when(bookService.bulkDelete(any())).thenReturn(new BookBulkResult(1, List.of(2L)));
+
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method("POST")
+                .uri("/api/books/bulk-delete")
+                .bodyJson(Json.parse(requestBody));
+
+        // When
+        Result result = route(app, request);
+
+        // Then
+        assertThat(result.status()).isEqualTo(OK);
+
+        JsonNode responseJson = Json.parse(contentAsString(result));
+        assertThat(responseJson.get("data").get("affected").asInt()).isEqualTo(1);
+        assertThat(responseJson.get("data").get("missing").get(0).asLong()).isEqualTo(2L);
+    }
+
+    @Test
+    void testBulkDelete_CborBodyOverDefaultBufferBound() throws Exception {
+        // Given: past Play's 100KB memory buffer, where a raw body would be spilled to disk
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1_000_000; id < 1_030_000; id++) {
+            ids.add(id);
+        }
+        byte[] body = MediaFormat.CBOR.mapper().writeValueAsBytes(Map.of("ids", ids));
+        assertThat(body.length).isGreaterThan(100 * 1024);
+        when(bookService.bulkDelete(any())).thenReturn(new BookBulkResult(ids.size(), List.of()));
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(POST)
+                .uri("/api/books/bulk-delete")
+                .bodyRaw(body)
+                .header(CONTENT_TYPE, "application/cbor");
+
+        // When
+        Result result = route(app, request);
+
+        // Then
+        assertThat(result.status()).isEqualTo(OK);
+        verify(bookService).bulkDelete(argThat(bulk -> bulk.getIds().size() == ids.size()));
+    }
+
+    @Test
+    void testBulkStatus_CborBodyOverLimitRefused() throws Exception {
+        // Given: past books.bulk.max-length
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1_000_000; id < 1_300_000; id++) {
+            ids.add(id);
+        }
+        byte[] body = MediaFormat.CBOR.mapper().writeValueAsBytes(Map.of("ids", ids, "status", "APPROVED"));
+        assertThat(body.length).isGreaterThan(1024 * 1024);
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(POST)
+                .uri("/api/books/bulk-status")
+                .bodyRaw(body)
+                .header(CONTENT_TYPE, "application/cbor");
+
+        // When
+        Result result = route(app, request);
+
+        // Then
+        assertThat(result.status()).isEqualTo(REQUEST_ENTITY_TOO_LARGE);
+        verify(bookService, never()).bulkUpdateStatus(any());
+    }
+
+    @Test
+    void testCreateBatch_SmileBodyOverDefaultBufferBound() throws Exception {
+        // Given
+        List<Map<String, Object>> books = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            books.add(Map.of("isbn", String.format("978%010d", i),
+                    "title", "Book number " + i + " of a catalog loaded in one request",
+                    "copyrightYear", 2023, "status", "PENDING"));
+        }
+        byte[] body = MediaFormat.SMILE.mapper().writeValueAsBytes(Map.of("books", books));
+        assertThat(body.length).isGreaterThan(100 * 1024);
+        when(bookService.createAll(anyList(), eq(OnConflict.FAIL))).thenReturn(List.of());
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(POST)
+                .uri("/api/books/batch")
+                .bodyRaw(body)
+                .header(CONTENT_TYPE, "application/x-jackson-smile");
+
+        // When
+        Result result = route(app, request);
+
+        // Then: bound rather than answered with "Expected an array of books"
+        assertThat(result.status()).isEqualTo(OK);
+        verify(bookService).createAll(argThat(requests -> requests.size() == 1000
+                && "978%010d".formatted(999).equals(requests.get(999).getIsbn())), eq(OnConflict.FAIL));
+    }
+
+    @Test
+    void testBulkStatus_InvalidStatus() throws Exception {
+        // Given
+        String requestBody = """
+            {
+                "ids": [1],
+                "status": "UNKNOWN"
+            }
+            """;
+
+        when(bookService.bulkUpdateStatus(any())).thenThrow(new BookInvalidRequestException("Invalid status: UNKNOWN"));
+
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method("POST")
+                .uri("/api/books/bulk-status")
+                .bodyJson(Json.parse(requestBody));
+
+        // When
+        Result result = route(app, request);
+
+        // Then
+        assertThat(result.status()).isEqualTo(BAD_REQUEST);
+    }
+
     @Test
     void testDelete_NotFound() throws Exception {
         // Given
@@ -341,7 +695,10 @@ public class BookControllerTest extends WithApplication {
         doThrow(new BookNotFoundException("Book not found")).when(bookService).delete(bookId);
 
         // When
-        CompletionStage<Result> resultStage = controller.delete(bookId);
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(DELETE)
+                .uri("/api/books/" + bookId);
+        CompletionStage<Result> resultStage = controller.delete(request.build(), bookId);
         Result result = resultStage.toCompletableFuture().get();
 
         // Then
@@ -441,4 +798,425 @@ public class BookControllerTest extends WithApplication {
         
         verify(bookService).search(searchQuery);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testCreateBatch_Success() throws Exception {
+        // Given
+        String requestBody = """
+            {
+                "books": [
+                    { "isbn": "9780300267662", "title": "Why Architecture Matters", "copyrightYear": "2023", "status": "approved" },
+                    { "isbn": "9783110545982", "copyrightYear": 2025, "status": "rejected" }
+                ]
+            }
+            """;
+
+        when(bookService.createAll(anyList(), eq(OnConflict.FAIL))).thenReturn(Arrays.asList(
+                BookInsertResult.inserted(0, 1L),
+                BookInsertResult.failed(1, "Title is required")));
+
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(POST)
+                .uri("/api/books/batch")
+                .bodyJson(Json.parse(requestBody));
+
+        // When
+        CompletionStage<Result> resultStage = controller.createBatch(request.build());
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(OK);
+
+        JsonNode responseJson = Json.parse(contentAsString(result));
+        assertThat(responseJson.get("success").asBoolean()).isTrue();
+        assertThat(responseJson.get("message").asText()).isEqualTo("Inserted 1 of 2 books");
+        assertThat(responseJson.get("data").get(0).get("id").asLong()).isEqualTo(1L);
+        assertThat(responseJson.get("data").get(1).get("error").asText()).isEqualTo("Title is required");
+
+        verify(bookService).createAll(argThat(requests -> requests.size() == 2), eq(OnConflict.FAIL));
+    }
+
+    @Test
+    void testCreateBatch_BodyOverDefaultBufferAccepted() throws Exception {
+        // Given: well past Play's 100KB default memory buffer
+        ArrayNode books = Json.newArray();
+        for (int i = 0; i < 1000; i++) {
+            books.addObject()
+                    .put("isbn", String.format("978%010d", i))
+                    .put("title", "Book number " + i + " of a catalog loaded in one request")
+                    .put("copyrightYear", 2023)
+                    .put("status", "PENDING");
+        }
+        when(bookService.createAll(anyList(), eq(OnConflict.FAIL))).thenAnswer(invocation -> {
+            List<BookCreateRequest> requests = invocation.getArgument(0);
+            List<BookInsertResult> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                results.add(BookInsertResult.inserted(i, (long) i + 1));
+            }
+            return results;
+        });
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(POST)
+                .uri("/api/books/batch")
+                .bodyJson(books);
+
+        // When
+        Result result = route(app, request);
+
+        // Then
+        assertThat(result.status()).isEqualTo(OK);
+        assertThat(Json.parse(contentAsString(result)).get("message").asText()).isEqualTo("Inserted 1000 of 1000 books");
+    }
+
+    @Test
+    void testCreateBatch_NotAnArray() throws Exception {
+        // Given
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(POST)
+                .uri("/api/books/batch")
+                .bodyJson(Json.parse("{\"books\": \"none\"}"));
+
+        // When
+        CompletionStage<Result> resultStage = controller.createBatch(request.build());
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(BAD_REQUEST);
+        verify(bookService, never()).createAll(anyList(), any());
+    }
+
+    @Test
+    void testCreateBatch_OnConflictUpdate() throws Exception {
+        // Given
+        when(bookService.createAll(anyList(), eq(OnConflict.UPDATE))).thenReturn(Arrays.asList(
+                BookInsertResult.updated(0, 7L),
+                BookInsertResult.skipped(1, 8L)));
+
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(POST)
+                .uri("/api/books/batch?onConflict=update")
+                .bodyJson(Json.parse("[{}, {}]"));
+
+        // When
+        CompletionStage<Result> resultStage = controller.createBatch(request.build());
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(OK);
+
+        JsonNode responseJson = Json.parse(contentAsString(result));
+        assertThat(responseJson.get("message").asText()).isEqualTo("Inserted 0 of 2 books");
+        assertThat(responseJson.get("data").get(0).get("outcome").asText()).isEqualTo("UPDATED");
+        assertThat(responseJson.get("data").get(1).get("outcome").asText()).isEqualTo("SKIPPED");
+    }
+
+    @Test
+    void testCreateBatch_InvalidOnConflict() throws Exception {
+        // Given
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(POST)
+                .uri("/api/books/batch?onConflict=replace")
+                .bodyJson(Json.parse("[]"));
+
+        // When
+        CompletionStage<Result> resultStage = controller.createBatch(request.build());
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(BAD_REQUEST);
+        verify(bookService, never()).createAll(anyList(), any());
+    }
+
+    @Test
+    void testGetAll_Paged() throws Exception {
+        // Given
+        when(bookService.getPage(any(BookFilter.class), eq(BookSort.ID), eq("abc"), eq(2))).thenReturn(new BookPage(Arrays.asList(testBookDto), "next"));
+
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(GET)
+                .uri("/api/books?limit=2&after=abc");
+
+        // When
+        CompletionStage<Result> resultStage = controller.getAll(request.build());
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(OK);
+
+        JsonNode responseJson = Json.parse(contentAsString(result));
+        assertThat(responseJson.get("data").get("items").size()).isEqualTo(1);
+        assertThat(responseJson.get("data").get("nextCursor").asText()).isEqualTo("next");
+
+        verify(bookService, never()).getAll();
+    }
+
+    @Test
+    void testGetAll_InvalidLimit() throws Exception {
+        // Given
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(GET)
+                .uri("/api/books?limit=zero");
+
+        // When
+        CompletionStage<Result> resultStage = controller.getAll(request.build());
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(BAD_REQUEST);
+        verify(bookService, never()).getPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetAll_FilteredAndSorted() throws Exception {
+        // Given
+        when(bookService.getPage(any(), any(), isNull(), anyInt())).thenReturn(new BookPage(Arrays.asList(testBookDto), null));
+
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(GET)
+                .uri("/api/books?status=PENDING&yearFrom=2020&yearTo=2025&sort=-copyrightYear");
+
+        // When
+        CompletionStage<Result> resultStage = controller.getAll(request.build());
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(OK);
+        verify(bookService).getPage(
+                argThat(filter -> "PENDING".equals(filter.getStatus())
+                        && filter.getMinCopyrightYear() == 2020 && filter.getMaxCopyrightYear() == 2025),
+                argThat(sort -> sort.getPath().equals("b.copyrightYear") && sort.isDescending()),
+                isNull(),
+                eq(BookController.DEFAULT_PAGE_SIZE));
+        verify(bookService, never()).getAll();
+    }
+
+    @Test
+    void testGetAll_InvalidSort() throws Exception {
+        // Given
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(GET)
+                .uri("/api/books?sort=isbn");
+
+        // When
+        CompletionStage<Result> resultStage = controller.getAll(request.build());
+        Result result = resultStage.toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(BAD_REQUEST);
+        verify(bookService, never()).getPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void testStreamAll_WritesEnvelopeWhileScrolling() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<BookDto> consumer = invocation.getArgument(0);
+            consumer.accept(testBookDto);
+            consumer.accept(testBookDto);
+            return null;
+        }).when(bookService).scrollAll(any());
+        ActorSystem system = ActorSystem.create("stream-test");
+
+        try {
+            // When
+            Result result = controller.streamAll();
+            String body = contentAsString(result, Materializer.matFromSystem(system));
+
+            // Then
+            assertThat(result.status()).isEqualTo(OK);
+            assertThat(result.body().isKnownEmpty()).isFalse();
+
+            JsonNode responseJson = Json.parse(body);
+            assertThat(responseJson.get("success").asBoolean()).isTrue();
+            assertThat(responseJson.get("data").size()).isEqualTo(2);
+            assertThat(responseJson.get("data").get(1).get("title").asText()).isEqualTo("Test Book");
+        } finally {
+            system.terminate();
+        }
+    }
+
+    @Test
+    void testStreamAll_FailureMidStreamFailsBody() throws Exception {
+        // Given: the database fails after the first book was written
+        doAnswer(invocation -> {
+            Consumer<BookDto> consumer = invocation.getArgument(0);
+            consumer.accept(testBookDto);
+            throw new RuntimeException("Connection lost");
+        }).when(bookService).scrollAll(any());
+        ActorSystem system = ActorSystem.create("stream-test");
+
+        try {
+            // When
+            Result result = controller.streamAll();
+
+            // Then: the body fails instead of ending like a complete document
+            assertThat(result.status()).isEqualTo(OK);
+            assertThatThrownBy(() -> contentAsString(result, Materializer.matFromSystem(system)))
+                    .hasRootCauseMessage("Connection lost");
+        } finally {
+            system.terminate();
+        }
+    }
+
+    @Test
+    void testStats_ServedFromMemory() {
+        // Given
+        bookStatistics.onCreated(testBookDto);
+
+        // When
+        Result result = controller.stats(new Http.RequestBuilder().uri("/api/books/stats").build());
+
+        // Then
+        assertThat(result.status()).isEqualTo(OK);
+        JsonNode data = Json.parse(contentAsString(result)).get("data");
+        assertThat(data.get("total").asLong()).isEqualTo(1);
+        assertThat(data.get("byStatus").get(testBookDto.getStatus()).asLong()).isEqualTo(1);
+        assertThat(data.get("byCopyrightYear").get(String.valueOf(testBookDto.getCopyrightYear())).asLong())
+                .isEqualTo(1);
+        verify(bookService, never()).create(any());
+    }
+
+    @Test
+    void testSuggest_ServedWithoutDatabaseDispatcher() {
+        // Given
+        when(bookService.suggest("effective", 5))
+                .thenReturn(List.of(new BookSuggestion(1L, "Effective Java")));
+
+        // When
+        Result result = controller.suggest(new Http.RequestBuilder()
+                .uri("/api/books/suggest?prefix=effective&limit=5").build());
+
+        // Then
+        assertThat(result.status()).isEqualTo(OK);
+        JsonNode data = Json.parse(contentAsString(result)).get("data");
+        assertThat(data.get(0).get("title").asText()).isEqualTo("Effective Java");
+        verifyNoInteractions(dbExecutionContext);
+    }
+
+    @Test
+    void testStats_CborWhenAccepted() throws Exception {
+        // Given
+        bookStatistics.onCreated(testBookDto);
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .uri("/api/books/stats")
+                .header(ACCEPT, "application/cbor");
+
+        // When
+        Result result = controller.stats(request.build());
+
+        // Then
+        assertThat(result.contentType()).contains("application/cbor");
+        assertThat(result.header(VARY)).contains(ACCEPT);
+        JsonNode data = MediaFormat.CBOR.mapper().readTree(contentAsBytes(result).toArray()).get("data");
+        assertThat(data.get("total").asLong()).isEqualTo(1);
+    }
+
+    @Test
+    void testEvents_RejectedWhenSubscribersFull() {
+        // When: the hub under test accepts no subscribers
+        Result result = controller.events();
+
+        // Then
+        assertThat(result.status()).isEqualTo(SERVICE_UNAVAILABLE);
+        assertThat(result.header(RETRY_AFTER)).contains("1");
+    }
+
+    @Test
+    void testChanges_ReturnsDeltaAndNextToken() throws Exception {
+        // Given
+        when(bookChangeFeed.changesSince("token", 2)).thenReturn(
+                new BookChanges(List.of(testBookDto), List.of(7L), "next-token", true));
+
+        // When
+        Result result = controller.changes(fakeRequest(GET, "/api/books/changes?since=token&limit=2").build())
+                .toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(OK);
+        JsonNode data = Json.parse(contentAsString(result)).get("data");
+        assertThat(data.get("changed").get(0).get("id").asLong()).isEqualTo(1L);
+        assertThat(data.get("deleted").get(0).asLong()).isEqualTo(7L);
+        assertThat(data.get("nextToken").asText()).isEqualTo("next-token");
+        assertThat(data.get("hasMore").asBoolean()).isTrue();
+    }
+
+    @Test
+    void testChanges_ExpiredTokenIsGone() throws Exception {
+        // Given
+        when(bookChangeFeed.changesSince("old", BookController.DEFAULT_CHANGES)).thenThrow(
+                new BookChangesExpiredException("Changes are only kept for 30 days, reload the catalog"));
+
+        // When
+        Result result = controller.changes(fakeRequest(GET, "/api/books/changes?since=old").build())
+                .toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(GONE);
+    }
+
+    @Test
+    void testGetOne_CborWhenAccepted() throws Exception {
+        // Given
+        when(bookService.getOne("1")).thenReturn(testBookDto);
+        Http.Request request = fakeRequest().header(ACCEPT, "application/cbor, application/json;q=0.5").build();
+
+        // When
+        Result result = controller.getOne(request, "1").toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(OK);
+        assertThat(result.contentType()).contains("application/cbor");
+        assertThat(result.header(VARY)).contains(ACCEPT);
+        assertThat(result.header(ETAG).orElseThrow()).endsWith("+cbor\"");
+
+        JsonNode responseJson = MediaFormat.CBOR.mapper().readTree(contentAsBytes(result).toArray());
+        assertThat(responseJson.get("success").asBoolean()).isTrue();
+        assertThat(responseJson.get("data").get("title").asText()).isEqualTo("Test Book");
+    }
+
+    @Test
+    void testGetOne_JsonTagDoesNotMatchSmile() throws Exception {
+        // Given: the client holds the JSON representation's tag but now asks for Smile
+        when(bookService.getOne("1")).thenReturn(testBookDto);
+        String jsonTag = controller.getOne(fakeRequest().build(), "1").toCompletableFuture().get()
+                .header(ETAG).orElseThrow();
+        Http.Request request = fakeRequest()
+                .header(ACCEPT, "application/x-jackson-smile")
+                .header(IF_NONE_MATCH, jsonTag)
+                .build();
+
+        // When
+        Result result = controller.getOne(request, "1").toCompletableFuture().get();
+
+        // Then
+        assertThat(result.status()).isEqualTo(OK);
+        JsonNode responseJson = MediaFormat.SMILE.mapper().readTree(contentAsBytes(result).toArray());
+        assertThat(responseJson.get("data").get("id").asLong()).isEqualTo(1L);
+    }
+
+    @Test
+    void testCreate_AcceptsCborBody() throws Exception {
+        // Given
+        byte[] body = MediaFormat.CBOR.mapper().writeValueAsBytes(Map.of(
+                "isbn", "978-0-123456-78-9",
+                "title", "Test Book",
+                "subtitle", "Test Subtitle",
+                "copyrightYear", 2023,
+                "status", "PENDING"));
+        when(bookService.create(any())).thenReturn(testBookDto);
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(POST)
+                .uri("/api/books")
+                .bodyRaw(body)
+                .header(CONTENT_TYPE, "application/cbor");
+
+        // When
+        Result result = route(app, request);
+
+        // Then: the response is JSON, as nothing else was asked for
+        assertThat(result.status()).isEqualTo(OK);
+        assertThat(Json.parse(contentAsString(result)).get("data").get("title").asText()).isEqualTo("Test Book");
+        verify(bookService).create(argThat(created -> created.getCopyrightYear() == 2023
+                && "Test Book".equals(created.getTitle())));
+    }
+}
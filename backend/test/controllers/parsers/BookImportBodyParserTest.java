@@ -0,0 +1,132 @@
+package controllers.parsers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static play.test.Helpers.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.apache.pekko.actor.ActorSystem;
+import org.apache.pekko.stream.Materializer;
+import org.apache.pekko.stream.javadsl.Source;
+import org.apache.pekko.util.ByteString;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import play.libs.F;
+import play.libs.Json;
+import play.mvc.Http;
+import play.mvc.Result;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import models.dto.BookImportSummary;
+import models.dto.BookInsertResult;
+import models.request.BookCreateRequest;
+import services.BookService;
+import services.DatabaseExecutionContext;
+
+/**
+ * Streams import bodies through the import body parser with a mocked
+ * service, and checks what a failure part way through reports.
+ */
+@ExtendWith(MockitoExtension.class)
+public class BookImportBodyParserTest {
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private DatabaseExecutionContext dbExecutionContext;
+
+    private ActorSystem actorSystem;
+    private Materializer materializer;
+    private BookImportBodyParser parser;
+
+    @BeforeEach
+    void setUp() {
+        actorSystem = ActorSystem.create("import-parser-test");
+        materializer = Materializer.matFromSystem(actorSystem);
+        parser = new BookImportBodyParser(bookService, dbExecutionContext, 256, actorSystem.dispatcher());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        actorSystem.terminate();
+        actorSystem.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testImport_MalformedAfterFirstChunk_ReportsStoredChunk() throws Exception {
+        // Given: a full chunk of books, then a truncated one
+        runInline();
+        when(bookService.createAll(anyList(), any())).thenAnswer(invocation -> {
+            List<BookCreateRequest> requests = invocation.getArgument(0);
+            List<BookInsertResult> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                results.add(BookInsertResult.inserted(i, (long) i + 1));
+            }
+            return results;
+        });
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < BookImportBodyParser.CHUNK_SIZE; i++) {
+            body.append(String.format("{\"isbn\":\"978%010d\",\"title\":\"Book %d\",\"copyrightYear\":2023}%n", i, i));
+        }
+        body.append("{\"isbn\":");
+
+        // When
+        F.Either<Result, BookImportSummary> parsed = parse(body.toString());
+
+        // Then
+        assertThat(parsed.left).isPresent();
+        Result result = parsed.left.get();
+        assertThat(result.status()).isEqualTo(BAD_REQUEST);
+        JsonNode summary = Json.parse(contentAsString(result, materializer)).get("data");
+        assertThat(summary.get("total").asLong()).isEqualTo(BookImportBodyParser.CHUNK_SIZE);
+        assertThat(summary.get("inserted").asLong()).isEqualTo(BookImportBodyParser.CHUNK_SIZE);
+    }
+
+    @Test
+    void testImport_EntryOverLimit_RefusedWith413() throws Exception {
+        // When
+        F.Either<Result, BookImportSummary> parsed = parse(
+                "{\"isbn\":\"9780134685991\",\"title\":\"" + "x".repeat(300) + "\"}\n");
+
+        // Then
+        assertThat(parsed.left).isPresent();
+        Result result = parsed.left.get();
+        assertThat(result.status()).isEqualTo(REQUEST_ENTITY_TOO_LARGE);
+        JsonNode body = Json.parse(contentAsString(result, materializer));
+        assertThat(body.get("error").asText()).isEqualTo("Book entry exceeds 256 bytes");
+        assertThat(body.get("data").get("total").asLong()).isZero();
+        verify(bookService, never()).createAll(anyList(), any());
+    }
+
+    private void runInline() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(dbExecutionContext).execute(any());
+    }
+
+    private F.Either<Result, BookImportSummary> parse(String body) throws Exception {
+        Http.RequestHeader request = fakeRequest(POST, "/api/books/import")
+                .header(Http.HeaderNames.CONTENT_TYPE, "application/x-ndjson")
+                .build();
+        return parser.apply(request)
+                .run(Source.single(ByteString.fromString(body)), materializer)
+                .toCompletableFuture()
+                .get(10, TimeUnit.SECONDS);
+    }
+}
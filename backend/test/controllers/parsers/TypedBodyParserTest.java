@@ -0,0 +1,135 @@
+package controllers.parsers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static play.test.Helpers.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.apache.pekko.actor.ActorSystem;
+import org.apache.pekko.stream.Materializer;
+import org.apache.pekko.stream.javadsl.Source;
+import org.apache.pekko.util.ByteString;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import play.libs.F;
+import play.libs.Json;
+import play.mvc.Http;
+import play.mvc.Result;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import models.request.BookCreateRequest;
+import utils.MediaFormat;
+
+/**
+ * Feeds request bodies through the typed body parser and checks that they
+ * bind in each format and that oversized or malformed bodies are answered
+ * with 413 or 400 before an action could run.
+ */
+public class TypedBodyParserTest {
+
+    private static final String BOOK_JSON =
+            "{\"isbn\":\"9780134685991\",\"title\":\"Effective Java\",\"copyrightYear\":2018,\"status\":\"PENDING\"}";
+
+    private ActorSystem actorSystem;
+    private Materializer materializer;
+    private BookCreateBodyParser parser;
+
+    @BeforeEach
+    void setUp() {
+        actorSystem = ActorSystem.create("body-parser-test");
+        materializer = Materializer.matFromSystem(actorSystem);
+        parser = new BookCreateBodyParser(256, actorSystem.dispatcher());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        actorSystem.terminate();
+        actorSystem.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testParse_BindsJsonBody() throws Exception {
+        // When
+        F.Either<Result, BookCreateRequest> parsed = parse(request("application/json", null),
+                List.of(ByteString.fromString(BOOK_JSON)));
+
+        // Then
+        assertThat(parsed.right).isPresent();
+        assertThat(parsed.right.get().getTitle()).isEqualTo("Effective Java");
+        assertThat(parsed.right.get().getCopyrightYear()).isEqualTo(2018);
+    }
+
+    @Test
+    void testParse_BindsCborBody() throws Exception {
+        // Given
+        ByteString cbor = ByteString.fromArray(MediaFormat.CBOR.mapper().writeValueAsBytes(Json.parse(BOOK_JSON)));
+
+        // When
+        F.Either<Result, BookCreateRequest> parsed = parse(request("application/cbor", null), List.of(cbor));
+
+        // Then
+        assertThat(parsed.right).isPresent();
+        assertThat(parsed.right.get().getIsbn()).isEqualTo("9780134685991");
+    }
+
+    @Test
+    void testParse_DeclaredLengthOverLimit_RefusedWithoutReading() throws Exception {
+        // When: the body itself would fit, only the header is over the limit
+        F.Either<Result, BookCreateRequest> parsed = parse(request("application/json", "1000000"),
+                List.of(ByteString.fromString(BOOK_JSON)));
+
+        // Then
+        assertThat(parsed.left).isPresent();
+        assertThat(parsed.left.get().status()).isEqualTo(REQUEST_ENTITY_TOO_LARGE);
+    }
+
+    @Test
+    void testParse_StreamedBodyOverLimit_Refused() throws Exception {
+        // Given: chunked, no Content-Length
+        ByteString chunk = ByteString.fromString(" ".repeat(100));
+
+        // When
+        F.Either<Result, BookCreateRequest> parsed = parse(request("application/json", null),
+                List.of(chunk, chunk, chunk, ByteString.fromString(BOOK_JSON)));
+
+        // Then
+        assertThat(parsed.left).isPresent();
+        Result result = parsed.left.get();
+        assertThat(result.status()).isEqualTo(REQUEST_ENTITY_TOO_LARGE);
+        JsonNode body = Json.parse(contentAsString(result, materializer));
+        assertThat(body.get("error").asText()).isEqualTo("Request body exceeds 256 bytes");
+    }
+
+    @Test
+    void testParse_MalformedJson_BadRequest() throws Exception {
+        // When
+        F.Either<Result, BookCreateRequest> parsed = parse(request("application/json", null),
+                List.of(ByteString.fromString("{\"title\": ")));
+
+        // Then
+        assertThat(parsed.left).isPresent();
+        Result result = parsed.left.get();
+        assertThat(result.status()).isEqualTo(BAD_REQUEST);
+        assertThat(Json.parse(contentAsString(result, materializer)).get("success").asBoolean()).isFalse();
+    }
+
+    private F.Either<Result, BookCreateRequest> parse(Http.RequestHeader request, List<ByteString> chunks)
+            throws Exception {
+        return parser.apply(request)
+                .run(Source.from(chunks), materializer)
+                .toCompletableFuture()
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    private static Http.RequestHeader request(String contentType, String contentLength) {
+        Http.RequestBuilder builder = fakeRequest(POST, "/api/books").header(Http.HeaderNames.CONTENT_TYPE, contentType);
+        if (contentLength != null) {
+            builder.header(Http.HeaderNames.CONTENT_LENGTH, contentLength);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,184 @@
+package filters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static play.mvc.Http.HeaderNames.*;
+import static play.test.Helpers.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.apache.pekko.actor.ActorSystem;
+import org.apache.pekko.stream.Materializer;
+import org.apache.pekko.stream.javadsl.Source;
+import org.apache.pekko.util.ByteString;
+
+import play.mvc.Http;
+import play.mvc.Result;
+import play.mvc.Results;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import utils.ETags;
+
+/**
+ * Runs responses through the compression filter and checks negotiation, the
+ * size threshold, that both buffered and streamed bodies decode back to the
+ * original, and that ETags follow the coding.
+ */
+public class CompressionFilterTest {
+
+    private static final String LARGE_JSON = "{\"data\":[" + "{\"title\":\"History of Fire\"},".repeat(200) + "{}]}";
+
+    private ActorSystem actorSystem;
+    private Materializer materializer;
+    private CompressionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        actorSystem = ActorSystem.create("compression-test");
+        materializer = Materializer.matFromSystem(actorSystem);
+        filter = new CompressionFilter(materializer, new Compressor(6, 2), 1024);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        actorSystem.terminate();
+        actorSystem.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testNegotiate_HonoursQualityValues() {
+        assertThat(CompressionFilter.negotiate("gzip, deflate, br")).isEqualTo("gzip");
+        assertThat(CompressionFilter.negotiate("deflate;q=1.0, gzip;q=0.5")).isEqualTo("deflate");
+        assertThat(CompressionFilter.negotiate("gzip;q=0, deflate;q=0.1")).isEqualTo("deflate");
+        assertThat(CompressionFilter.negotiate("*;q=0.3")).isEqualTo("gzip");
+        assertThat(CompressionFilter.negotiate("br, identity")).isNull();
+        assertThat(CompressionFilter.negotiate("*;q=0")).isNull();
+    }
+
+    @Test
+    void testStrictBody_GzippedAboveThreshold() throws Exception {
+        // When
+        Result result = run("gzip", Results.ok(LARGE_JSON).as(Http.MimeTypes.JSON)
+                .withHeader(ETAG, "\"c42\""));
+
+        // Then
+        assertThat(result.header(CONTENT_ENCODING)).contains("gzip");
+        assertThat(result.header(VARY)).contains(ACCEPT_ENCODING);
+        assertThat(result.header(ETAG)).contains("\"c42-gzip\"");
+        byte[] body = bytes(result);
+        assertThat(body.length).isLessThan(LARGE_JSON.length() / 4);
+        assertThat(inflate(new GZIPInputStream(new ByteArrayInputStream(body)))).isEqualTo(LARGE_JSON);
+    }
+
+    @Test
+    void testStrictBody_DeflatedWhenPreferred() throws Exception {
+        // When: twice, so the second response reuses the pooled Deflater
+        run("deflate", Results.ok(LARGE_JSON).as(Http.MimeTypes.JSON));
+        Result result = run("gzip;q=0.5, deflate", Results.ok(LARGE_JSON).as(Http.MimeTypes.JSON));
+
+        // Then
+        assertThat(result.header(CONTENT_ENCODING)).contains("deflate");
+        assertThat(inflate(new InflaterInputStream(new ByteArrayInputStream(bytes(result))))).isEqualTo(LARGE_JSON);
+    }
+
+    @Test
+    void testStrictBody_SmallOrUnacceptedLeftAlone() throws Exception {
+        // When
+        Result small = run("gzip", Results.ok("{\"data\":[]}").as(Http.MimeTypes.JSON));
+        Result identity = run("identity", Results.ok(LARGE_JSON).as(Http.MimeTypes.JSON));
+
+        // Then: both still vary, as another client may get a compressed body
+        assertThat(small.header(CONTENT_ENCODING)).isEmpty();
+        assertThat(small.header(VARY)).contains(ACCEPT_ENCODING);
+        assertThat(identity.header(CONTENT_ENCODING)).isEmpty();
+        assertThat(contentAsString(identity)).isEqualTo(LARGE_JSON);
+    }
+
+    @Test
+    void testSmallJsonBook_NotModifiedCarriesSameTagAsOk() throws Exception {
+        // Given: a book well below the threshold
+        String book = "{\"success\":true,\"data\":{\"id\":1,\"title\":\"History of Fire\"}}";
+
+        // When
+        Result ok = run("gzip", Results.ok(book).as(Http.MimeTypes.JSON).withHeader(ETAG, "\"b1.2.k\""));
+        Result notModified = run("gzip", ETags.notModified("\"b1.2.k\""));
+
+        // Then: tagged, so compressed despite its size, and the 304 names the same representation
+        assertThat(ok.header(CONTENT_ENCODING)).contains("gzip");
+        assertThat(ok.header(ETAG)).contains("\"b1.2.k-gzip\"");
+        assertThat(notModified.header(ETAG)).isEqualTo(ok.header(ETAG));
+        assertThat(inflate(new GZIPInputStream(new ByteArrayInputStream(bytes(ok))))).isEqualTo(book);
+    }
+
+    @Test
+    void testCborBook_NotModifiedKeepsPlainTag() throws Exception {
+        // Given
+        byte[] book = new byte[2048];
+
+        // When
+        Result ok = run("gzip", Results.ok(book).as("application/cbor").withHeader(ETAG, "\"b1.2.k+cbor\""));
+        Result notModified = run("gzip", ETags.notModified("\"b1.2.k+cbor\""));
+
+        // Then: binary bodies are never coded, so neither tag is
+        assertThat(ok.header(CONTENT_ENCODING)).isEmpty();
+        assertThat(ok.header(ETAG)).contains("\"b1.2.k+cbor\"");
+        assertThat(notModified.header(ETAG)).isEqualTo(ok.header(ETAG));
+    }
+
+    @Test
+    void testChunkedBody_GzippedWhileStreaming() throws Exception {
+        // Given
+        Source<ByteString, ?> chunks = Source.from(List.of(
+                ByteString.fromString(LARGE_JSON.substring(0, 1000)), ByteString.fromString(LARGE_JSON.substring(1000))));
+
+        // When
+        Result result = run("gzip", Results.ok().chunked(chunks).as(Http.MimeTypes.JSON));
+
+        // Then
+        assertThat(result.header(CONTENT_ENCODING)).contains("gzip");
+        assertThat(inflate(new GZIPInputStream(new ByteArrayInputStream(bytes(result))))).isEqualTo(LARGE_JSON);
+    }
+
+    @Test
+    void testEventStream_NotCompressed() throws Exception {
+        // When
+        Result result = run("gzip", Results.ok().chunked(Source.single(ByteString.fromString(LARGE_JSON)))
+                .as(Http.MimeTypes.EVENT_STREAM));
+
+        // Then
+        assertThat(result.header(CONTENT_ENCODING)).isEmpty();
+    }
+
+    @Test
+    void testETags_CodedTagMatchesOriginal() {
+        assertThat(ETags.withCoding("\"b1.2.k\"", "gzip")).isEqualTo("\"b1.2.k-gzip\"");
+        Http.Request request = fakeRequest().header(IF_NONE_MATCH, "W/\"b1.2.k-gzip\"").build();
+        assertThat(ETags.matches(request, "\"b1.2.k\"")).isTrue();
+    }
+
+    private Result run(String acceptEncoding, Result response) throws Exception {
+        Http.Request request = fakeRequest().header(ACCEPT_ENCODING, acceptEncoding).build();
+        return filter.apply(header -> CompletableFuture.completedFuture(response), request)
+                .toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    private byte[] bytes(Result result) throws Exception {
+        return result.body().consumeData(materializer).toCompletableFuture().get(5, TimeUnit.SECONDS).toArray();
+    }
+
+    private static String inflate(InputStream in) throws IOException {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
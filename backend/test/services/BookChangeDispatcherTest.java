@@ -0,0 +1,90 @@
+package services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import models.Book;
+import models.dto.BookDto;
+import models.dto.BookSuggestion;
+import services.index.BookSearchIndex;
+import services.index.TitleSuggester;
+
+/**
+ * Sends changes of one book out of order, as two committing threads can,
+ * and checks that the views end up holding the newest one while the
+ * statistics still count every change.
+ */
+public class BookChangeDispatcherTest {
+
+    private BookSearchIndex searchIndex;
+    private TitleSuggester titleSuggester;
+    private BookStatistics statistics;
+    private BookChangeDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new BookSearchIndex();
+        titleSuggester = new TitleSuggester();
+        statistics = new BookStatistics();
+        dispatcher = new BookChangeDispatcher(List.of(searchIndex, titleSuggester, statistics));
+    }
+
+    @Test
+    void testUpdated_OlderVersionAfterNewerDropped() {
+        // Given
+        dispatcher.created(book(1L, "Draft Title", Book.BookStatus.PENDING, 0L));
+
+        // When: version 2 is delivered before version 1
+        dispatcher.updated(book(1L, "Second Draft", Book.BookStatus.REJECTED, 1L),
+                book(1L, "Final Title", Book.BookStatus.APPROVED, 2L));
+        dispatcher.updated(book(1L, "Draft Title", Book.BookStatus.PENDING, 0L),
+                book(1L, "Second Draft", Book.BookStatus.REJECTED, 1L));
+
+        // Then
+        assertThat(searchIndex.search("final")).containsExactly(1L);
+        assertThat(searchIndex.search("draft")).isEmpty();
+        assertThat(titleSuggester.suggest("final", 5)).extracting(BookSuggestion::getId).containsExactly(1L);
+        assertThat(titleSuggester.suggest("second", 5)).isEmpty();
+        // The statistics add up every change, the stale one included
+        assertThat(statistics.snapshot().getByStatus()).containsEntry("PENDING", 0L)
+                .containsEntry("APPROVED", 1L).containsEntry("REJECTED", 0L);
+    }
+
+    @Test
+    void testUpdated_AfterDeleteDropped() {
+        // Given
+        dispatcher.created(book(1L, "Effective Java", Book.BookStatus.PENDING, 0L));
+
+        // When: the delete committed after the update but is delivered first
+        dispatcher.deleted(book(1L, "Effective Java", Book.BookStatus.APPROVED, 1L));
+        dispatcher.updated(book(1L, "Effective Java", Book.BookStatus.PENDING, 0L),
+                book(1L, "Effective Java", Book.BookStatus.APPROVED, 1L));
+
+        // Then
+        assertThat(searchIndex.search("java")).isEmpty();
+        assertThat(titleSuggester.suggest("eff", 5)).isEmpty();
+        assertThat(statistics.snapshot().getTotal()).isZero();
+    }
+
+    @Test
+    void testUpdated_InOrderAllDelivered() {
+        // When
+        dispatcher.created(book(1L, "First", Book.BookStatus.PENDING, 0L));
+        dispatcher.updated(book(1L, "First", Book.BookStatus.PENDING, 0L), book(1L, "Second", Book.BookStatus.PENDING, 1L));
+        dispatcher.updated(book(1L, "Second", Book.BookStatus.PENDING, 1L), book(1L, "Third", Book.BookStatus.PENDING, 2L));
+
+        // Then
+        assertThat(searchIndex.search("third")).containsExactly(1L);
+        assertThat(searchIndex.search("second")).isEmpty();
+    }
+
+    private static BookDto book(Long id, String title, Book.BookStatus status, Long version) {
+        Instant now = Instant.now();
+        return new BookDto(id, "9780134685991", title, null, 2018, status, now, now, version);
+    }
+}
@@ -0,0 +1,164 @@
+package services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.hibernate.stat.Statistics;
+import play.db.jpa.JPAApi;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import models.dto.BookChanges;
+import models.dto.BookDto;
+import models.request.BookCreateRequest;
+import models.request.BookUpdateRequest;
+import exceptions.BookChangesExpiredException;
+import services.index.BookSearchIndex;
+import services.index.IsbnBloomFilter;
+import services.index.TitleSuggester;
+import utils.SyncToken;
+
+/**
+ * Reads the delta sync feed after writes made through BookServiceImpl, on
+ * the real persistence unit and an in-memory H2 database.
+ */
+@ExtendWith(MockitoExtension.class)
+public class BookChangeFeedTest {
+
+    @Mock
+    private JPAApi jpaApi;
+
+    private TestPersistence persistence;
+    private BookChangeSequence changeSequence;
+    private BookServiceImpl bookService;
+    private int isbnSequence;
+
+    @BeforeEach
+    void setUp() {
+        persistence = new TestPersistence("change-feed", jpaApi);
+        changeSequence = new BookChangeSequence(0);
+        bookService = new BookServiceImpl(jpaApi, new BookSearchIndex(), new TitleSuggester(),
+                new BookCache(1024 * 1024), new CatalogVersion(), changeSequence, new IsbnBloomFilter(10_000, 0.01),
+                Set.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistence.close();
+    }
+
+    @Test
+    void testChangesSince_UpdatesAndTombstonesAfterToken() {
+        // Given
+        BookChangeFeed changeFeed = new BookChangeFeed(jpaApi, changeSequence, Duration.ofDays(30));
+        BookDto kept = bookService.create(createRequest("Kept"));
+        BookDto edited = bookService.create(createRequest("Edited"));
+        BookDto removed = bookService.create(createRequest("Removed"));
+        BookChanges initial = changeFeed.changesSince(null, 100);
+
+        // When
+        BookUpdateRequest update = new BookUpdateRequest();
+        update.setId(edited.getId());
+        update.setTitle("Edited Again");
+        update.setVersion(edited.getVersion());
+        bookService.update(update);
+        bookService.delete(String.valueOf(removed.getId()));
+        BookChanges changes = changeFeed.changesSince(initial.getNextToken(), 100);
+
+        // Then
+        assertThat(initial.getChanged()).extracting(BookDto::getId)
+                .containsExactly(kept.getId(), edited.getId(), removed.getId());
+        assertThat(changes.getChanged()).extracting(BookDto::getTitle).containsExactly("Edited Again");
+        assertThat(changes.getDeleted()).containsExactly(removed.getId());
+        assertThat(changes.isHasMore()).isFalse();
+    }
+
+    @Test
+    void testChangesSince_PagesThroughBooksAndTombstonesInOrder() {
+        // Given
+        BookChangeFeed changeFeed = new BookChangeFeed(jpaApi, changeSequence, Duration.ofDays(30));
+        BookDto first = bookService.create(createRequest("First"));
+        BookDto removed = bookService.create(createRequest("Removed"));
+        BookDto last = bookService.create(createRequest("Last"));
+        bookService.delete(String.valueOf(removed.getId()));
+
+        // When
+        BookChanges page1 = changeFeed.changesSince(null, 2);
+        BookChanges page2 = changeFeed.changesSince(page1.getNextToken(), 2);
+        BookChanges page3 = changeFeed.changesSince(page2.getNextToken(), 2);
+
+        // Then
+        assertThat(page1.getChanged()).extracting(BookDto::getId).containsExactly(first.getId(), last.getId());
+        assertThat(page1.getDeleted()).isEmpty();
+        assertThat(page1.isHasMore()).isTrue();
+        assertThat(page2.getChanged()).isEmpty();
+        assertThat(page2.getDeleted()).containsExactly(removed.getId());
+        assertThat(page2.isHasMore()).isFalse();
+        assertThat(page3.getChanged()).isEmpty();
+        assertThat(page3.getDeleted()).isEmpty();
+    }
+
+    @Test
+    void testChangesSince_ProjectsBooksWithoutLoadingEntities() {
+        // Given
+        BookChangeFeed changeFeed = new BookChangeFeed(jpaApi, changeSequence, Duration.ofDays(30));
+        bookService.create(createRequest("First"));
+        bookService.create(createRequest("Second"));
+        Statistics statistics = persistence.statistics();
+        statistics.clear();
+
+        // When
+        BookChanges changes = changeFeed.changesSince(null, 100);
+
+        // Then
+        assertThat(changes.getChanged()).extracting(BookDto::getTitle).containsExactly("First", "Second");
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void testChangesSince_StopsBeforeWriteStillInFlight() {
+        // Given: a write numbered first that has not committed yet
+        BookChangeFeed changeFeed = new BookChangeFeed(jpaApi, changeSequence, Duration.ofDays(30));
+        long slowWrite = changeSequence.next();
+        BookDto committed = bookService.create(createRequest("Committed"));
+
+        // When
+        BookChanges before = changeFeed.changesSince(null, 100);
+        changeSequence.finished(slowWrite);
+        BookChanges after = changeFeed.changesSince(before.getNextToken(), 100);
+
+        // Then: the later write is held back rather than skipped
+        assertThat(before.getChanged()).isEmpty();
+        assertThat(after.getChanged()).extracting(BookDto::getId).containsExactly(committed.getId());
+    }
+
+    @Test
+    void testChangesSince_TokenPastRetentionRefused() {
+        // Given
+        BookChangeFeed changeFeed = new BookChangeFeed(jpaApi, changeSequence, Duration.ofDays(30));
+        String token = new SyncToken(Instant.now().minus(Duration.ofDays(31)), 0L, 0L).encode();
+
+        // When & Then
+        assertThatThrownBy(() -> changeFeed.changesSince(token, 100)).isInstanceOf(BookChangesExpiredException.class);
+        assertThat(changeFeed.compact()).isZero();
+    }
+
+    private BookCreateRequest createRequest(String title) {
+        BookCreateRequest request = new BookCreateRequest();
+        request.setIsbn(String.format("978%010d", ++isbnSequence));
+        request.setTitle(title);
+        request.setSubtitle("Subtitle");
+        request.setCopyrightYear(2023);
+        request.setStatus("PENDING");
+        return request;
+    }
+}
@@ -0,0 +1,133 @@
+package services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.apache.pekko.actor.ActorSystem;
+import org.apache.pekko.stream.Attributes;
+import org.apache.pekko.stream.Materializer;
+import org.apache.pekko.stream.javadsl.Sink;
+import org.apache.pekko.stream.javadsl.SinkQueueWithCancel;
+import org.apache.pekko.util.ByteString;
+
+import play.libs.Json;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import models.dto.BookDto;
+import models.dto.BookEvent;
+
+/**
+ * Subscribes to the event hub and checks that committed changes reach every
+ * subscriber and that a subscriber which stops reading is dropped, with a
+ * reset event, rather than holding up the writer.
+ */
+public class BookEventHubTest {
+
+    private ActorSystem actorSystem;
+    private Materializer materializer;
+
+    @BeforeEach
+    void setUp() {
+        actorSystem = ActorSystem.create("event-hub-test");
+        materializer = Materializer.matFromSystem(actorSystem);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        actorSystem.terminate();
+        actorSystem.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testPublish_ReachesEverySubscriber() throws Exception {
+        // Given
+        BookEventHub hub = new BookEventHub(16, 10);
+        CompletionStage<List<ByteString>> first = hub.subscribe().take(3).runWith(Sink.seq(), materializer);
+        CompletionStage<List<ByteString>> second = hub.subscribe().take(3).runWith(Sink.seq(), materializer);
+
+        // When
+        hub.onLoaded(book(7L));
+        hub.onCreated(book(1L));
+        hub.onUpdated(book(1L), book(1L));
+        hub.onDeleted(book(1L));
+
+        // Then: the startup load is not an event
+        for (CompletionStage<List<ByteString>> frames : List.of(first, second)) {
+            assertThat(events(frames.toCompletableFuture().get(5, TimeUnit.SECONDS)))
+                    .extracting(BookEvent::getType, BookEvent::getId)
+                    .containsExactly(tuple(BookEvent.CREATED, 1L), tuple(BookEvent.UPDATED, 1L),
+                            tuple(BookEvent.DELETED, 1L));
+        }
+        assertThat(hub.metrics()).containsEntry("published", 3L);
+    }
+
+    @Test
+    void testPublish_DropsSubscriberThatStopsReadingWithReset() throws Exception {
+        // Given: a subscriber that reads nothing until the writer is done
+        BookEventHub hub = new BookEventHub(4, 10);
+        SinkQueueWithCancel<ByteString> subscriber = hub.subscribe()
+                .runWith(Sink.<ByteString>queue().withAttributes(Attributes.inputBuffer(1, 1)), materializer);
+        assertThat(hub.metrics()).containsEntry("subscribers", 1);
+
+        // When
+        for (long id = 1; id <= 10; id++) {
+            hub.onCreated(book(id));
+        }
+        List<ByteString> frames = new ArrayList<>();
+        Optional<ByteString> frame;
+        while ((frame = subscriber.pull().toCompletableFuture().get(5, TimeUnit.SECONDS)).isPresent()) {
+            frames.add(frame.get());
+        }
+
+        // Then: the stream ends with a reset in place of the events it missed
+        assertThat(hub.metrics()).containsEntry("subscribers", 0).containsEntry("droppedSubscribers", 1L);
+        List<BookEvent> events = events(frames);
+        assertThat(events).hasSizeLessThan(10);
+        assertThat(events.get(events.size() - 1).getType()).isEqualTo(BookEvent.RESET);
+        assertThat(frames.get(frames.size() - 1).utf8String()).startsWith("event: reset\n");
+    }
+
+    @Test
+    void testIsFull_AtMaxSubscribers() {
+        // Given
+        BookEventHub hub = new BookEventHub(4, 1);
+        assertThat(hub.isFull()).isFalse();
+
+        // When
+        hub.subscribe().runWith(Sink.ignore(), materializer);
+
+        // Then
+        assertThat(hub.isFull()).isTrue();
+    }
+
+    // Reads back the data line of each server-sent event frame
+    private static List<BookEvent> events(List<ByteString> frames) {
+        List<BookEvent> events = new ArrayList<>();
+        for (ByteString frame : frames) {
+            for (String line : frame.utf8String().split("\n")) {
+                if (line.startsWith("data: ")) {
+                    events.add(Json.fromJson(Json.parse(line.substring("data: ".length())), BookEvent.class));
+                }
+            }
+        }
+        return events;
+    }
+
+    private static BookDto book(Long id) {
+        BookDto book = new BookDto();
+        book.setId(id);
+        book.setTitle("Book " + id);
+        book.setStatus("PENDING");
+        book.setCopyrightYear(2023);
+        return book;
+    }
+}
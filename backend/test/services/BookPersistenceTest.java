@@ -0,0 +1,169 @@
+package services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import org.hibernate.stat.Statistics;
+import play.db.jpa.JPAApi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import models.dto.BookDto;
+import models.dto.BookInsertResult;
+import models.request.BookCreateRequest;
+import models.request.OnConflict;
+import exceptions.BookConflictException;
+import exceptions.BookNotFoundException;
+import services.index.BookSearchIndex;
+import services.index.IsbnBloomFilter;
+import services.index.TitleSuggester;
+
+/**
+ * Runs the real persistence unit against an in-memory H2 database and checks
+ * with Hibernate statistics that inserts go out in JDBC batches, that the
+ * unique ISBN index holds and that new ISBNs skip the existence query.
+ */
+@ExtendWith(MockitoExtension.class)
+public class BookPersistenceTest {
+
+    @Mock
+    private JPAApi jpaApi;
+
+    private TestPersistence persistence;
+    private Statistics statistics;
+    private BookServiceImpl bookService;
+    private int isbnSequence;
+
+    @BeforeEach
+    void setUp() {
+        persistence = new TestPersistence("book-persistence", jpaApi);
+        statistics = persistence.statistics();
+
+        BookSearchIndex searchIndex = new BookSearchIndex();
+        IsbnBloomFilter isbnFilter = new IsbnBloomFilter(10_000, 0.01);
+        bookService = new BookServiceImpl(jpaApi, searchIndex, new TitleSuggester(),
+                new BookCache(1024 * 1024), new CatalogVersion(), new BookChangeSequence(0), isbnFilter,
+                Set.of(searchIndex, isbnFilter));
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistence.close();
+    }
+
+    @Test
+    void testCreateAll_InsertsInJdbcBatches() {
+        // Given
+        List<BookCreateRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            requests.add(createRequest("Batched Book " + i));
+        }
+        statistics.clear();
+
+        // When
+        List<BookInsertResult> results = bookService.createAll(requests, OnConflict.FAIL);
+
+        // Then: a few sequence calls and insert batches, not 120 inserts each reading back its key
+        assertThat(results).allMatch(BookInsertResult::isSuccess);
+        assertThat(results).extracting(BookInsertResult::getId).doesNotHaveDuplicates();
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(12);
+    }
+
+    @Test
+    void testCreate_DuplicateIsbnRejected() {
+        // Given
+        bookService.create(createRequest("Original", "978-0-306-40615-7"));
+
+        // When & Then: the same ISBN, written without hyphens or as ISBN-10
+        assertThatThrownBy(() -> bookService.create(createRequest("Copy", "9780306406157")))
+                .isInstanceOf(BookConflictException.class)
+                .hasMessage("A book with ISBN 9780306406157 already exists");
+        List<BookInsertResult> results = bookService.createAll(List.of(createRequest("Copy", "0-306-40615-2")),
+                OnConflict.FAIL);
+        assertThat(results.get(0).getError()).isEqualTo("A book with ISBN 0-306-40615-2 already exists");
+        assertThat(bookService.getAll()).hasSize(1);
+    }
+
+    @Test
+    void testGetByIsbn_MatchesAnyWrittenForm() {
+        // Given
+        bookService.create(createRequest("History of Fire", "978-0-306-40615-7"));
+
+        // When
+        BookDto byIsbn10 = bookService.getByIsbn("0306406152");
+        BookDto byIsbn13 = bookService.getByIsbn("978 0306 40615 7");
+
+        // Then
+        assertThat(byIsbn10.getTitle()).isEqualTo("History of Fire");
+        assertThat(byIsbn13.getId()).isEqualTo(byIsbn10.getId());
+        assertThatThrownBy(() -> bookService.getByIsbn("9783110545982")).isInstanceOf(BookNotFoundException.class);
+    }
+
+    @Test
+    void testCreateAll_NewIsbnsSkipExistenceQuery() {
+        // Given
+        bookService.create(createRequest("Stored Book"));
+        statistics.clear();
+
+        // When
+        List<BookInsertResult> results = bookService.createAll(
+                List.of(createRequest("New Book"), createRequest("Another New Book")), OnConflict.SKIP);
+
+        // Then: the Bloom filter rules both ISBNs out, so nothing is selected before inserting
+        assertThat(results).extracting(BookInsertResult::getOutcome)
+                .containsExactly(BookInsertResult.Outcome.INSERTED, BookInsertResult.Outcome.INSERTED);
+        assertThat(statistics.getQueryExecutionCount()).isZero();
+    }
+
+    @Test
+    void testCreateAll_ReingestWithUpdate() {
+        // Given
+        BookDto unchanged = bookService.create(createRequest("Unchanged", "9780300267662"));
+        BookDto changed = bookService.create(createRequest("Old Title", "9783110545982"));
+
+        // When: the same books again, one edited (ISBN now hyphenated), plus a new book listed twice
+        List<BookInsertResult> results = bookService.createAll(List.of(
+                createRequest("Unchanged", "9780300267662"),
+                createRequest("New Title", "978-3-11-054598-2"),
+                createRequest("New Book", "9780520392314"),
+                createRequest("Repeat", "9780520392314")), OnConflict.UPDATE);
+
+        // Then
+        assertThat(results).extracting(BookInsertResult::getOutcome).containsExactly(
+                BookInsertResult.Outcome.SKIPPED, BookInsertResult.Outcome.UPDATED,
+                BookInsertResult.Outcome.INSERTED, BookInsertResult.Outcome.SKIPPED);
+        assertThat(results.get(0).getId()).isEqualTo(unchanged.getId());
+        assertThat(results.get(3).getId()).isEqualTo(results.get(2).getId());
+
+        BookDto updated = bookService.getByIsbn("9783110545982");
+        assertThat(updated.getId()).isEqualTo(changed.getId());
+        assertThat(updated.getTitle()).isEqualTo("New Title");
+        assertThat(updated.getIsbn()).isEqualTo("978-3-11-054598-2");
+        assertThat(updated.getVersion()).isGreaterThan(changed.getVersion());
+        assertThat(bookService.getByIsbn("9780300267662").getVersion()).isEqualTo(unchanged.getVersion());
+        assertThat(bookService.getAll()).hasSize(3);
+    }
+
+    private BookCreateRequest createRequest(String title) {
+        return createRequest(title, String.format("978%010d", ++isbnSequence));
+    }
+
+    private static BookCreateRequest createRequest(String title, String isbn) {
+        BookCreateRequest request = new BookCreateRequest();
+        request.setIsbn(isbn);
+        request.setTitle(title);
+        request.setSubtitle("Subtitle");
+        request.setCopyrightYear(2023);
+        request.setStatus("PENDING");
+        return request;
+    }
+}
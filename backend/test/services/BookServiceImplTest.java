@@ -8,24 +8,45 @@ import static org.mockito.Mockito.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.hibernate.exception.ConstraintViolationException;
 import play.db.jpa.JPAApi;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Query;
 import jakarta.persistence.TypedQuery;
 
+import java.sql.SQLException;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 import models.Book;
+import models.dto.BookBulkResult;
 import models.dto.BookDto;
+import models.dto.BookInsertResult;
+import models.dto.BookPage;
+import models.request.BookBulkRequest;
 import models.request.BookCreateRequest;
+import models.request.BookFilter;
+import models.request.BookSort;
 import models.request.BookUpdateRequest;
+import models.request.OnConflict;
+import exceptions.BookConflictException;
 import exceptions.BookNotFoundException;
 import exceptions.BookInvalidRequestException;
+import exceptions.BookVersionRequiredException;
+import services.index.BookSearchIndex;
+import services.index.IsbnBloomFilter;
+import services.index.TitleSuggester;
+import utils.PageCursor;
 
 @ExtendWith(MockitoExtension.class)
 public class BookServiceImplTest {
@@ -37,9 +58,25 @@ public class BookServiceImplTest {
     private EntityManager entityManager;
 
     @Mock
-    private TypedQuery<Book> typedQuery;
+    private TypedQuery<BookDto> dtoQuery;
+
+    @Mock
+    private TypedQuery<Long> versionQuery;
+
+    @Mock
+    private TypedQuery<Long> idQuery;
+
+    @Mock
+    private TypedQuery<Book> bookQuery;
+
+    @Mock
+    private Query updateQuery;
 
     private BookServiceImpl bookService;
+    private BookSearchIndex searchIndex;
+    private BookCache bookCache;
+    private CatalogVersion catalogVersion;
+    private IsbnBloomFilter isbnFilter;
 
     private Book testBook;
     private BookCreateRequest createRequest;
@@ -47,7 +84,12 @@ public class BookServiceImplTest {
 
     @BeforeEach
     void setUp() {
-        bookService = new BookServiceImpl(jpaApi);
+        searchIndex = new BookSearchIndex();
+        bookCache = new BookCache(1024 * 1024);
+        catalogVersion = new CatalogVersion();
+        isbnFilter = new IsbnBloomFilter(1000, 0.01);
+        bookService = new BookServiceImpl(jpaApi, searchIndex, new TitleSuggester(), bookCache, catalogVersion,
+                new BookChangeSequence(0), isbnFilter, Set.of(searchIndex, bookCache, catalogVersion, isbnFilter));
         
         // Setup test data
         testBook = new Book();
@@ -59,6 +101,7 @@ public class BookServiceImplTest {
         testBook.setStatus(Book.BookStatus.PENDING);
         testBook.setCreatedAt(Instant.now());
         testBook.setUpdatedAt(Instant.now());
+        testBook.setVersion(1L);
 
         createRequest = new BookCreateRequest();
         createRequest.setIsbn("978-0-123456-78-9");
@@ -74,6 +117,7 @@ public class BookServiceImplTest {
         updateRequest.setSubtitle("Updated Subtitle");
         updateRequest.setCopyrightYear(2024);
         updateRequest.setStatus("APPROVED");
+        updateRequest.setVersion(1L);
     }
 
     @Test
@@ -83,6 +127,7 @@ public class BookServiceImplTest {
             Function<EntityManager, Object> function = invocation.getArgument(0);
             return function.apply(entityManager);
         });
+        assignIdsOnPersist();
 
         // When
         BookDto result = bookService.create(createRequest);
@@ -103,17 +148,20 @@ public class BookServiceImplTest {
     void testGetOne_Success() {
         // Given
         String bookId = "1";
-        when(jpaApi.withTransaction(any(Function.class))).thenAnswer(invocation -> {
-            Function<EntityManager, Object> function = invocation.getArgument(0);
+        when(jpaApi.withTransaction(eq("default"), eq(true), any(Function.class))).thenAnswer(invocation -> {
+            Function<EntityManager, Object> function = invocation.getArgument(2);
             return function.apply(entityManager);
         });
-        when(entityManager.find(Book.class, bookId)).thenReturn(testBook);
+        when(entityManager.createQuery(BookServiceImpl.SELECT_BOOK_DTO + " WHERE b.id = :id", BookDto.class))
+                .thenReturn(dtoQuery);
+        when(dtoQuery.getResultList()).thenReturn(List.of(new BookDto(testBook)));
 
         // When
         BookDto result = bookService.getOne(bookId);
 
         // Then
-        verify(entityManager).find(Book.class, bookId);
+        verify(dtoQuery).setParameter("id", 1L);
+        verify(entityManager, never()).find(any(), any());
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(testBook.getId());
         assertThat(result.getTitle()).isEqualTo(testBook.getTitle());
@@ -123,11 +171,12 @@ public class BookServiceImplTest {
     void testGetOne_NotFound() {
         // Given
         String bookId = "999";
-        when(jpaApi.withTransaction(any(Function.class))).thenAnswer(invocation -> {
-            Function<EntityManager, Object> function = invocation.getArgument(0);
+        when(jpaApi.withTransaction(eq("default"), eq(true), any(Function.class))).thenAnswer(invocation -> {
+            Function<EntityManager, Object> function = invocation.getArgument(2);
             return function.apply(entityManager);
         });
-        when(entityManager.find(Book.class, bookId)).thenReturn(null);
+        when(entityManager.createQuery(anyString(), eq(BookDto.class))).thenReturn(dtoQuery);
+        when(dtoQuery.getResultList()).thenReturn(List.of());
 
         // When & Then
         assertThatThrownBy(() -> bookService.getOne(bookId))
@@ -136,22 +185,74 @@ public class BookServiceImplTest {
     }
 
     @Test
-    void testGetAll_Success() {
+    void testGetOne_ServedFromCacheAfterFirstRead() {
+        // Given
+        when(jpaApi.withTransaction(eq("default"), eq(true), any(Function.class))).thenAnswer(invocation -> {
+            Function<EntityManager, Object> function = invocation.getArgument(2);
+            return function.apply(entityManager);
+        });
+        when(entityManager.createQuery(anyString(), eq(BookDto.class))).thenReturn(dtoQuery);
+        when(dtoQuery.getResultList()).thenReturn(List.of(new BookDto(testBook)));
+
+        // When
+        BookDto first = bookService.getOne("1");
+        BookDto second = bookService.getOne("1");
+
+        // Then
+        verify(jpaApi, times(1)).withTransaction(anyString(), anyBoolean(), any(Function.class));
+        assertThat(second).isSameAs(first);
+        assertThat(bookCache.metrics()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    void testUpdate_CachedAtVersion_SkipsReadAndInvalidates() {
         // Given
-        List<Book> books = Arrays.asList(testBook);
         when(jpaApi.withTransaction(any(Function.class))).thenAnswer(invocation -> {
             Function<EntityManager, Object> function = invocation.getArgument(0);
             return function.apply(entityManager);
         });
-        when(entityManager.createQuery("SELECT b FROM Book b", Book.class)).thenReturn(typedQuery);
-        when(typedQuery.getResultList()).thenReturn(books);
+        when(jpaApi.withTransaction(eq("default"), eq(true), any(Function.class))).thenAnswer(invocation -> {
+            Function<EntityManager, Object> function = invocation.getArgument(2);
+            return function.apply(entityManager);
+        });
+        BookDto updatedBook = new BookDto(testBook);
+        updatedBook.setTitle(updateRequest.getTitle());
+        when(entityManager.createQuery(anyString())).thenReturn(updateQuery);
+        when(updateQuery.executeUpdate()).thenReturn(1);
+        when(entityManager.createQuery(anyString(), eq(BookDto.class))).thenReturn(dtoQuery);
+        // The first read and the read after the update; the update takes the replaced row from the cache
+        when(dtoQuery.getResultList()).thenReturn(List.of(new BookDto(testBook)), List.of(updatedBook));
+        bookService.getOne("1");
+
+        // When
+        BookDto updated = bookService.update(updateRequest);
+        BookDto result = bookService.getOne("1");
+
+        // Then
+        verify(dtoQuery, never()).setParameter("version", 1L);
+        assertThat(updated.getVersion()).isEqualTo(2L);
+        assertThat(result.getTitle()).isEqualTo(updateRequest.getTitle());
+        assertThat(bookCache.metrics()).containsEntry("misses", 2L);
+    }
+
+    @Test
+    void testGetAll_Success() {
+        // Given
+        List<BookDto> books = Arrays.asList(new BookDto(testBook));
+        when(jpaApi.withTransaction(eq("default"), eq(true), any(Function.class))).thenAnswer(invocation -> {
+            Function<EntityManager, Object> function = invocation.getArgument(2);
+            return function.apply(entityManager);
+        });
+        when(entityManager.createQuery(BookServiceImpl.SELECT_BOOK_DTO, BookDto.class)).thenReturn(dtoQuery);
+        when(dtoQuery.getResultList()).thenReturn(books);
 
         // When
         List<BookDto> result = bookService.getAll();
 
         // Then
-        verify(entityManager).createQuery("SELECT b FROM Book b", Book.class);
-        verify(typedQuery).getResultList();
+        verify(entityManager).createQuery(BookServiceImpl.SELECT_BOOK_DTO, BookDto.class);
+        verify(dtoQuery).getResultList();
+        verify(jpaApi, never()).withTransaction(any(Function.class));
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getTitle()).isEqualTo(testBook.getTitle());
     }
@@ -163,17 +264,30 @@ public class BookServiceImplTest {
             Function<EntityManager, Object> function = invocation.getArgument(0);
             return function.apply(entityManager);
         });
-        when(entityManager.find(Book.class, updateRequest.getId())).thenReturn(testBook);
+        when(entityManager.createQuery(anyString())).thenReturn(updateQuery);
+        when(updateQuery.executeUpdate()).thenReturn(1);
+        when(entityManager.createQuery(anyString(), eq(BookDto.class))).thenReturn(dtoQuery);
+        when(dtoQuery.getResultList()).thenReturn(List.of(new BookDto(testBook)));
 
         // When
         BookDto result = bookService.update(updateRequest);
 
         // Then
-        verify(entityManager).find(Book.class, updateRequest.getId());
-        verify(entityManager).merge(any(Book.class));
-        verify(entityManager).flush();
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createQuery(jpql.capture());
+        assertThat(jpql.getValue())
+                .startsWith("UPDATE Book b SET b.version = b.version + 1")
+                .contains("b.title = :title", "b.status = :status")
+                .endsWith("WHERE b.id = :id AND b.version = :version");
+        verify(updateQuery).setParameter("status", Book.BookStatus.APPROVED);
+        verify(entityManager, never()).find(any(), any());
+        verify(entityManager, never()).merge(any());
+        verify(dtoQuery).setParameter("version", 1L);
+        verify(dtoQuery, never()).getSingleResult();
         assertThat(result).isNotNull();
         assertThat(result.getTitle()).isEqualTo(updateRequest.getTitle());
+        assertThat(result.getStatus()).isEqualTo("APPROVED");
+        assertThat(result.getVersion()).isEqualTo(2L);
     }
 
     @Test
@@ -183,7 +297,11 @@ public class BookServiceImplTest {
             Function<EntityManager, Object> function = invocation.getArgument(0);
             return function.apply(entityManager);
         });
-        when(entityManager.find(Book.class, updateRequest.getId())).thenReturn(null);
+        when(entityManager.createQuery(anyString(), eq(BookDto.class))).thenReturn(dtoQuery);
+        when(dtoQuery.getResultList()).thenReturn(List.of());
+        when(entityManager.createQuery("SELECT b.version FROM Book b WHERE b.id = :id", Long.class))
+                .thenReturn(versionQuery);
+        when(versionQuery.getResultList()).thenReturn(List.of());
 
         // When & Then
         assertThatThrownBy(() -> bookService.update(updateRequest))
@@ -191,6 +309,51 @@ public class BookServiceImplTest {
                 .hasMessage("Book not found with id: " + updateRequest.getId());
     }
 
+    @Test
+    void testUpdate_StaleVersion() {
+        // Given
+        updateRequest.setVersion(2L);
+        when(jpaApi.withTransaction(any(Function.class))).thenAnswer(invocation -> {
+            Function<EntityManager, Object> function = invocation.getArgument(0);
+            return function.apply(entityManager);
+        });
+        when(entityManager.createQuery(anyString(), eq(BookDto.class))).thenReturn(dtoQuery);
+        when(dtoQuery.getResultList()).thenReturn(List.of());
+        when(entityManager.createQuery("SELECT b.version FROM Book b WHERE b.id = :id", Long.class))
+                .thenReturn(versionQuery);
+        when(versionQuery.getResultList()).thenReturn(List.of(3L));
+
+        // When & Then
+        assertThatThrownBy(() -> bookService.update(updateRequest))
+                .isInstanceOf(BookConflictException.class)
+                .hasMessageContaining("current version is 3");
+        verify(dtoQuery).setParameter("version", 2L);
+        verify(entityManager, never()).createQuery(startsWith("UPDATE"));
+    }
+
+    @Test
+    void testUpdate_VersionRequired() {
+        // Given: a client that does not say which version it edited
+        updateRequest.setVersion(null);
+
+        // When & Then
+        assertThatThrownBy(() -> bookService.update(updateRequest))
+                .isInstanceOf(BookVersionRequiredException.class);
+        verifyNoInteractions(jpaApi);
+    }
+
+    @Test
+    void testUpdate_InvalidStatus() {
+        // Given
+        updateRequest.setStatus("LOST");
+
+        // When & Then
+        assertThatThrownBy(() -> bookService.update(updateRequest))
+                .isInstanceOf(BookInvalidRequestException.class)
+                .hasMessage("Invalid status: LOST");
+        verifyNoInteractions(jpaApi);
+    }
+
     @Test
     void testDelete_Success() {
         // Given
@@ -227,28 +390,92 @@ public class BookServiceImplTest {
     }
 
     @Test
-    void testSearch_Success() {
+    void testBulkDelete_ReportsMissingIds() {
+        // Given
+        when(jpaApi.withTransaction(any(Function.class))).thenAnswer(invocation -> {
+            Function<EntityManager, Object> function = invocation.getArgument(0);
+            return function.apply(entityManager);
+        });
+        when(entityManager.createQuery(anyString(), eq(Long.class))).thenReturn(idQuery);
+        when(idQuery.getResultList()).thenReturn(List.of(1L));
+        when(entityManager.createQuery(anyString(), eq(Book.class))).thenReturn(bookQuery);
+        when(bookQuery.getResultList()).thenReturn(List.of(testBook));
+        when(entityManager.createQuery(startsWith("DELETE"))).thenReturn(updateQuery);
+        when(updateQuery.executeUpdate()).thenReturn(1);
+        long versionBefore = catalogVersion.current();
+
+        // When
+        BookBulkResult result = bookService.bulkDelete(new BookBulkRequest(Arrays.asList(1L, 2L, 1L, null), null, null));
+
+        // Then
+        assertThat(result.getAffected()).isEqualTo(1);
+        assertThat(result.getMissing()).containsExactly(2L);
+        verify(idQuery).setParameter("ids", List.of(1L, 2L));
+        verify(updateQuery).setParameter("ids", List.of(1L));
+        verify(bookQuery).setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        assertThat(catalogVersion.current()).isGreaterThan(versionBefore);
+        assertThat(catalogVersion.writesInFlight()).isZero();
+    }
+
+    @Test
+    void testBulkUpdateStatus_ByFilter() {
         // Given
-        String searchQuery = "Test";
-        List<Book> books = Arrays.asList(testBook);
         when(jpaApi.withTransaction(any(Function.class))).thenAnswer(invocation -> {
             Function<EntityManager, Object> function = invocation.getArgument(0);
             return function.apply(entityManager);
         });
-        when(entityManager.createQuery(anyString(), eq(Book.class))).thenReturn(typedQuery);
-        when(typedQuery.setParameter(eq("query"), anyString())).thenReturn(typedQuery);
-        when(typedQuery.getResultList()).thenReturn(books);
+        when(entityManager.createQuery(anyString(), eq(Long.class))).thenReturn(idQuery);
+        when(idQuery.getResultList()).thenReturn(List.of(1L));
+        when(entityManager.createQuery(anyString(), eq(Book.class))).thenReturn(bookQuery);
+        when(bookQuery.getResultList()).thenReturn(List.of(testBook));
+        when(entityManager.createQuery(startsWith("UPDATE"))).thenReturn(updateQuery);
+        when(updateQuery.executeUpdate()).thenReturn(1);
+
+        // When
+        BookBulkResult result = bookService.bulkUpdateStatus(
+                new BookBulkRequest(null, new BookFilter("PENDING", null, 1999), "APPROVED"));
+
+        // Then
+        assertThat(result.getAffected()).isEqualTo(1);
+        assertThat(result.getMissing()).isNull();
+        verify(idQuery).setParameter("filterStatus", Book.BookStatus.PENDING);
+        verify(idQuery).setParameter("maxCopyrightYear", 1999);
+        verify(updateQuery).setParameter("status", Book.BookStatus.APPROVED);
+    }
+
+    @Test
+    void testBulkDelete_RequiresIdsOrFilter() {
+        // When & Then
+        assertThatThrownBy(() -> bookService.bulkDelete(new BookBulkRequest(List.of(), new BookFilter(), null)))
+                .isInstanceOf(BookInvalidRequestException.class)
+                .hasMessage("Either ids or a filter is required");
+        verifyNoInteractions(jpaApi);
+    }
+
+    @Test
+    void testSearch_Success() {
+        // Given
+        String searchQuery = "Test";
+        List<BookDto> books = Arrays.asList(new BookDto(testBook));
+        searchIndex.onCreated(new BookDto(testBook));
+        when(jpaApi.withTransaction(eq("default"), eq(true), any(Function.class))).thenAnswer(invocation -> {
+            Function<EntityManager, Object> function = invocation.getArgument(2);
+            return function.apply(entityManager);
+        });
+        when(entityManager.createQuery(anyString(), eq(BookDto.class))).thenReturn(dtoQuery);
+        when(dtoQuery.setParameter(eq("ids"), any())).thenReturn(dtoQuery);
+        when(dtoQuery.getResultList()).thenReturn(books);
 
         // When
         List<BookDto> result = bookService.search(searchQuery);
 
         // Then
         verify(entityManager).createQuery(
-            "SELECT b FROM Book b WHERE LOWER(b.title) LIKE LOWER(:query) OR LOWER(b.subtitle) LIKE LOWER(:query)", 
-            Book.class
+            BookServiceImpl.SELECT_BOOK_DTO + " WHERE b.id IN :ids ORDER BY b.id",
+            BookDto.class
         );
-        verify(typedQuery).setParameter("query", "%" + searchQuery + "%");
-        verify(typedQuery).getResultList();
+        verify(dtoQuery).setParameter("ids", Arrays.asList(testBook.getId()));
+        verify(dtoQuery).getResultList();
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getTitle()).isEqualTo(testBook.getTitle());
     }
@@ -257,18 +484,150 @@ public class BookServiceImplTest {
     void testSearch_EmptyResult() {
         // Given
         String searchQuery = "NonExistent";
+        searchIndex.onCreated(new BookDto(testBook));
+
+        // When
+        List<BookDto> result = bookService.search(searchQuery);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(jpaApi, never()).withTransaction(anyString(), anyBoolean(), any(Function.class));
+    }
+
+    @Test
+    void testDelete_RemovesBookFromSearchIndex() {
+        // Given
+        searchIndex.onCreated(new BookDto(testBook));
         when(jpaApi.withTransaction(any(Function.class))).thenAnswer(invocation -> {
             Function<EntityManager, Object> function = invocation.getArgument(0);
             return function.apply(entityManager);
         });
-        when(entityManager.createQuery(anyString(), eq(Book.class))).thenReturn(typedQuery);
-        when(typedQuery.setParameter(eq("query"), anyString())).thenReturn(typedQuery);
-        when(typedQuery.getResultList()).thenReturn(Arrays.asList());
+        when(entityManager.find(Book.class, 1L)).thenReturn(testBook);
 
         // When
-        List<BookDto> result = bookService.search(searchQuery);
+        bookService.delete("1");
 
         // Then
-        assertThat(result).isEmpty();
+        assertThat(searchIndex.search("test")).isEmpty();
+    }
+
+    @Test
+    void testCreateAll_ReportsResultPerEntry() {
+        // Given
+        when(jpaApi.withTransaction(any(Function.class))).thenAnswer(invocation -> {
+            Function<EntityManager, Object> function = invocation.getArgument(0);
+            return function.apply(entityManager);
+        });
+        when(jpaApi.withTransaction(eq("default"), eq(true), any(Function.class))).thenAnswer(invocation -> {
+            Function<EntityManager, Object> function = invocation.getArgument(2);
+            return function.apply(entityManager);
+        });
+        BookDto storedBook = new BookDto(testBook);
+        storedBook.setId(5L);
+        storedBook.setIsbn("9780520392314");
+        isbnFilter.onLoaded(storedBook);
+        assignIdsOnPersist();
+        when(entityManager.createQuery(anyString(), eq(BookDto.class))).thenReturn(dtoQuery);
+        when(dtoQuery.getResultList()).thenReturn(List.of(storedBook));
+        BookCreateRequest missingTitle = new BookCreateRequest("9783110545982", null, "", 2025, "REJECTED");
+        BookCreateRequest badStatus = new BookCreateRequest("9780520392314", "Crime", "", 2022, "UNKNOWN");
+        BookCreateRequest badIsbn = new BookCreateRequest("978-0-1234", "Crime", "", 2022, "PENDING");
+        BookCreateRequest repeated = new BookCreateRequest("9780123456789", "Again", "", 2022, "PENDING");
+        BookCreateRequest stored = new BookCreateRequest("978-0-520-39231-4", "Crime", "", 2022, "PENDING");
+
+        // When
+        List<BookInsertResult> results = bookService.createAll(
+                Arrays.asList(createRequest, missingTitle, null, badStatus, badIsbn, repeated, stored), OnConflict.FAIL);
+
+        // Then: only the ISBN the Bloom filter knows is looked up
+        verify(entityManager, times(1)).persist(any(Book.class));
+        verify(jpaApi, times(1)).withTransaction(any(Function.class));
+        verify(dtoQuery).setParameter("isbns", List.of("9780520392314"));
+        assertThat(results).hasSize(7);
+        assertThat(results.get(0).isSuccess()).isTrue();
+        assertThat(results.get(1).getError()).isEqualTo("Title is required");
+        assertThat(results.get(2).getError()).isEqualTo("Invalid book data");
+        assertThat(results.get(3).getError()).isEqualTo("Invalid status: UNKNOWN");
+        assertThat(results.get(4).getError()).isEqualTo("Invalid ISBN: 978-0-1234");
+        assertThat(results.get(5).getError()).isEqualTo("A book with ISBN 9780123456789 already exists");
+        assertThat(results.get(6).getError()).isEqualTo("A book with ISBN 978-0-520-39231-4 already exists");
+        assertThat(results).extracting(BookInsertResult::getIndex).containsExactly(0, 1, 2, 3, 4, 5, 6);
+    }
+
+    @Test
+    void testCreateAll_ConcurrentIsbnRetriedOneAtATime() {
+        // Given: another import stores the first ISBN after it was looked up
+        when(jpaApi.withTransaction(any(Function.class)))
+                .thenThrow(new PersistenceException(new ConstraintViolationException(
+                        "Unique index or primary key violation", new SQLException(), "PUBLIC.UX_BOOKS_ISBN13")))
+                .thenAnswer(invocation -> {
+                    Function<EntityManager, Object> function = invocation.getArgument(0);
+                    return function.apply(entityManager);
+                });
+        when(jpaApi.withTransaction(eq("default"), eq(true), any(Function.class))).thenAnswer(invocation -> {
+            Function<EntityManager, Object> function = invocation.getArgument(2);
+            return function.apply(entityManager);
+        });
+        BookDto storedConcurrently = new BookDto(testBook);
+        storedConcurrently.setId(5L);
+        when(entityManager.createQuery(anyString(), eq(BookDto.class))).thenReturn(dtoQuery);
+        when(dtoQuery.getResultList()).thenReturn(List.of(storedConcurrently), List.of());
+        assignIdsOnPersist();
+        BookCreateRequest other = new BookCreateRequest("9783110545982", "Qualitative Interviews", "", 2025, "PENDING");
+
+        // When
+        List<BookInsertResult> results = bookService.createAll(List.of(createRequest, other), OnConflict.SKIP);
+
+        // Then: only the colliding entry is affected, and as onConflict says
+        assertThat(results).extracting(BookInsertResult::getOutcome)
+                .containsExactly(BookInsertResult.Outcome.SKIPPED, BookInsertResult.Outcome.INSERTED);
+        assertThat(results.get(0).getId()).isEqualTo(5L);
+        verify(jpaApi, times(3)).withTransaction(any(Function.class));
+        verify(entityManager, times(1)).persist(any(Book.class));
+    }
+
+    @Test
+    void testGetPage_ReturnsCursorWhenMoreRowsExist() {
+        // Given
+        Book nextBook = new Book("9783110545982", "Qualitative Interviews", "", 2025, Book.BookStatus.REJECTED);
+        nextBook.setId(2L);
+        when(jpaApi.withTransaction(eq("default"), eq(true), any(Function.class))).thenAnswer(invocation -> {
+            Function<EntityManager, Object> function = invocation.getArgument(2);
+            return function.apply(entityManager);
+        });
+        when(entityManager.createQuery(anyString(), eq(BookDto.class))).thenReturn(dtoQuery);
+        when(dtoQuery.setParameter(eq("after"), any())).thenReturn(dtoQuery);
+        when(dtoQuery.setMaxResults(anyInt())).thenReturn(dtoQuery);
+        when(dtoQuery.getResultList()).thenReturn(Arrays.asList(new BookDto(testBook), new BookDto(nextBook)));
+
+        // When
+        BookPage page = bookService.getPage(null, BookSort.ID, PageCursor.encode(0L), 1);
+
+        // Then
+        verify(entityManager).createQuery(
+            BookServiceImpl.SELECT_BOOK_DTO + " WHERE b.id > :after ORDER BY b.id",
+            BookDto.class
+        );
+        verify(dtoQuery).setParameter("after", 0L);
+        verify(dtoQuery).setMaxResults(2);
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(PageCursor.decode(page.getNextCursor())).isEqualTo(testBook.getId());
+    }
+
+    @Test
+    void testGetPage_InvalidCursor() {
+        // When & Then
+        assertThatThrownBy(() -> bookService.getPage(null, BookSort.ID, "not-a-cursor", 10))
+                .isInstanceOf(BookInvalidRequestException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    // Stands in for the id generator; changes are delivered to listeners by book id
+    private void assignIdsOnPersist() {
+        AtomicLong nextId = new AtomicLong(100);
+        doAnswer(invocation -> {
+            invocation.<Book>getArgument(0).setId(nextId.getAndIncrement());
+            return null;
+        }).when(entityManager).persist(any(Book.class));
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,149 @@
+package services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import play.db.jpa.JPAApi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import models.dto.BookDto;
+import models.dto.BookPage;
+import models.dto.BookStats;
+import models.request.BookCreateRequest;
+import models.request.BookFilter;
+import models.request.BookSort;
+import services.index.BookSearchIndex;
+import services.index.IsbnBloomFilter;
+import services.index.TitleSuggester;
+
+/**
+ * Runs the listing and statistics queries of BookServiceImpl against the
+ * real persistence unit on an in-memory H2 database.
+ */
+@ExtendWith(MockitoExtension.class)
+public class BookServiceQueryTest {
+
+    @Mock
+    private JPAApi jpaApi;
+
+    private TestPersistence persistence;
+    private BookServiceImpl bookService;
+    private int isbnSequence;
+
+    @BeforeEach
+    void setUp() {
+        persistence = new TestPersistence("book-queries", jpaApi);
+        bookService = newBookService(Set.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        persistence.close();
+    }
+
+    @Test
+    void testGetPage_FilteredAndSortedAcrossPages() {
+        // Given: ties on the year, books outside the year range and another status
+        int[] years = {2019, 2021, 2024, 2021, 2025, 2026, 2024};
+        for (int i = 0; i < years.length; i++) {
+            BookCreateRequest request = createRequest("Book " + i);
+            request.setCopyrightYear(years[i]);
+            bookService.create(request);
+        }
+        BookCreateRequest approved = createRequest("Approved");
+        approved.setCopyrightYear(2022);
+        approved.setStatus("APPROVED");
+        bookService.create(approved);
+
+        BookFilter filter = new BookFilter("PENDING", 2020, 2025);
+        BookSort sort = BookSort.parse("-copyrightYear");
+
+        // When
+        List<String> titles = new ArrayList<>();
+        String cursor = null;
+        do {
+            BookPage page = bookService.getPage(filter, sort, cursor, 2);
+            page.getItems().forEach(book -> titles.add(book.getTitle()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then: newest first, ties in id order descending
+        assertThat(titles).containsExactly("Book 4", "Book 6", "Book 2", "Book 3", "Book 1");
+    }
+
+    @Test
+    void testGetPage_TiesOnSortKeySplitAcrossPages() {
+        // Given: every title twice, so pages end between books with the same title
+        for (String title : List.of("Beta", "Alpha", "Beta", "Alpha", "Gamma")) {
+            bookService.create(createRequest(title));
+        }
+
+        // When
+        List<Long> ids = new ArrayList<>();
+        List<String> titles = new ArrayList<>();
+        String cursor = null;
+        do {
+            BookPage page = bookService.getPage(new BookFilter(null, null, null), BookSort.parse("title"), cursor, 1);
+            page.getItems().forEach(book -> {
+                ids.add(book.getId());
+                titles.add(book.getTitle());
+            });
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then: every book exactly once, ties in id order
+        assertThat(titles).containsExactly("Alpha", "Alpha", "Beta", "Beta", "Gamma");
+        assertThat(ids).doesNotHaveDuplicates();
+        assertThat(ids.subList(0, 2)).isSorted();
+        assertThat(ids.subList(2, 4)).isSorted();
+    }
+
+    @Test
+    void testComputeStats_MatchesInMemoryCounts() {
+        // Given
+        BookStatistics bookStatistics = new BookStatistics();
+        BookServiceImpl countingService = newBookService(Set.of(bookStatistics));
+        countingService.create(createRequest("First Book"));
+        BookDto second = countingService.create(createRequest("Second Book"));
+        BookCreateRequest approved = createRequest("Approved");
+        approved.setStatus("APPROVED");
+        approved.setCopyrightYear(1999);
+        countingService.create(approved);
+        countingService.delete(String.valueOf(second.getId()));
+
+        // When
+        BookStats stats = countingService.computeStats();
+
+        // Then
+        assertThat(stats.getTotal()).isEqualTo(2);
+        assertThat(stats.getByStatus()).containsEntry("PENDING", 1L).containsEntry("APPROVED", 1L)
+                .containsEntry("REJECTED", 0L);
+        assertThat(stats.getByCopyrightYear()).containsExactly(Map.entry(1999, 1L), Map.entry(2023, 1L));
+        assertThat(bookStatistics.snapshot()).isEqualTo(stats);
+    }
+
+    private BookServiceImpl newBookService(Set<BookChangeListener> listeners) {
+        return new BookServiceImpl(jpaApi, new BookSearchIndex(), new TitleSuggester(), new BookCache(1024 * 1024),
+                new CatalogVersion(), new BookChangeSequence(0), new IsbnBloomFilter(10_000, 0.01), listeners);
+    }
+
+    private BookCreateRequest createRequest(String title) {
+        BookCreateRequest request = new BookCreateRequest();
+        request.setIsbn(String.format("978%010d", ++isbnSequence));
+        request.setTitle(title);
+        request.setSubtitle("Subtitle");
+        request.setCopyrightYear(2023);
+        request.setStatus("PENDING");
+        return request;
+    }
+}
@@ -0,0 +1,141 @@
+package services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import models.dto.BookDto;
+import models.dto.BookStats;
+
+/**
+ * Checks that the in-memory statistics follow change events and that the
+ * reconciler only resets them on a difference no concurrent write explains.
+ */
+@ExtendWith(MockitoExtension.class)
+public class BookStatisticsTest {
+
+    @Mock
+    private BookService bookService;
+
+    private BookStatistics statistics;
+    private CatalogVersion catalogVersion;
+    private BookStatisticsReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new BookStatistics();
+        catalogVersion = new CatalogVersion();
+        reconciler = new BookStatisticsReconciler(bookService, statistics, catalogVersion);
+    }
+
+    @Test
+    void testChangeEvents_MoveCounts() {
+        // Given
+        statistics.onLoaded(book(1L, "PENDING", 2020));
+        statistics.onCreated(book(2L, "PENDING", 2021));
+        statistics.onCreated(book(3L, "APPROVED", 2021));
+
+        // When
+        statistics.onUpdated(book(1L, "PENDING", 2020), book(1L, "REJECTED", 2021));
+        statistics.onDeleted(book(3L, "APPROVED", 2021));
+
+        // Then
+        BookStats stats = statistics.snapshot();
+        assertThat(stats.getTotal()).isEqualTo(2);
+        assertThat(stats.getByStatus()).containsExactly(
+                Map.entry("PENDING", 1L), Map.entry("REJECTED", 1L), Map.entry("APPROVED", 0L));
+        assertThat(stats.getByCopyrightYear()).containsExactly(Map.entry(2021, 2L));
+    }
+
+    @Test
+    void testUpdates_OutOfOrderAddUp() {
+        // Given
+        statistics.onCreated(book(1L, "PENDING", 2020));
+
+        // When: the second update of the book is delivered before the first
+        statistics.onUpdated(book(1L, "APPROVED", 2020), book(1L, "REJECTED", 2021));
+        statistics.onUpdated(book(1L, "PENDING", 2020), book(1L, "APPROVED", 2020));
+
+        // Then
+        BookStats stats = statistics.snapshot();
+        assertThat(stats.getTotal()).isEqualTo(1);
+        assertThat(stats.getByStatus()).containsExactly(
+                Map.entry("PENDING", 0L), Map.entry("REJECTED", 1L), Map.entry("APPROVED", 0L));
+        assertThat(stats.getByCopyrightYear()).containsExactly(Map.entry(2021, 1L));
+    }
+
+    @Test
+    void testReconcile_MatchingCountsLeftAlone() {
+        // Given
+        statistics.onCreated(book(1L, "APPROVED", 2020));
+        when(bookService.computeStats()).thenReturn(statistics.snapshot());
+
+        // When & Then
+        assertThat(reconciler.reconcile()).isTrue();
+        assertThat(reconciler.mismatches()).isZero();
+    }
+
+    @Test
+    void testReconcile_DriftResetToDatabase() {
+        // Given: a second book the counters never heard of
+        statistics.onCreated(book(1L, "APPROVED", 2020));
+        BookStats stored = new BookStats(2, Map.of("PENDING", 1L, "APPROVED", 1L, "REJECTED", 0L),
+                Map.of(2020, 1L, 2024, 1L));
+        when(bookService.computeStats()).thenReturn(stored);
+
+        // When
+        boolean consistent = reconciler.reconcile();
+
+        // Then
+        assertThat(consistent).isFalse();
+        assertThat(reconciler.mismatches()).isEqualTo(1);
+        assertThat(statistics.snapshot()).isEqualTo(stored);
+    }
+
+    @Test
+    void testReconcile_SkippedWhenCatalogChangedDuringCheck() {
+        // Given
+        when(bookService.computeStats()).thenAnswer(invocation -> {
+            catalogVersion.bump();
+            return new BookStats(1, Map.of("PENDING", 1L, "APPROVED", 0L, "REJECTED", 0L), Map.of(2020, 1L));
+        });
+
+        // When & Then
+        assertThat(reconciler.reconcile()).isTrue();
+        assertThat(statistics.snapshot().getTotal()).isZero();
+    }
+
+    @Test
+    void testReconcile_SkippedWhileWriteInFlight() {
+        // Given: a book the database already has but whose event is still on its way
+        catalogVersion.beginWrite();
+        when(bookService.computeStats()).thenReturn(
+                new BookStats(1, Map.of("PENDING", 1L, "APPROVED", 0L, "REJECTED", 0L), Map.of(2020, 1L)));
+
+        // When
+        boolean consistent = reconciler.reconcile();
+        statistics.onCreated(book(1L, "PENDING", 2020));
+        catalogVersion.endWrite();
+
+        // Then: the book is counted once
+        assertThat(consistent).isTrue();
+        assertThat(reconciler.mismatches()).isZero();
+        assertThat(statistics.snapshot().getTotal()).isEqualTo(1);
+    }
+
+    private static BookDto book(Long id, String status, int copyrightYear) {
+        BookDto book = new BookDto();
+        book.setId(id);
+        book.setTitle("Book " + id);
+        book.setStatus(status);
+        book.setCopyrightYear(copyrightYear);
+        return book;
+    }
+}
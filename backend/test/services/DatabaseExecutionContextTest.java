@@ -0,0 +1,163 @@
+package services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import org.apache.pekko.actor.ActorSystem;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Puts blocking load on the database dispatcher and checks that it stays
+ * bounded by the pool size, never reaches the common pool and sheds work
+ * once its queue is full.
+ */
+public class DatabaseExecutionContextTest {
+
+    private static final int POOL_SIZE = 4;
+
+    private ActorSystem actorSystem;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (actorSystem != null) {
+            actorSystem.terminate();
+            actorSystem.getWhenTerminated().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void testBlockingLoad_StaysOnDispatcherAndWithinPoolSize() throws Exception {
+        // Given
+        DatabaseExecutionContext dbExecutionContext = newContext("dispatcher", 1000);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicBoolean ranOnCommonPool = new AtomicBoolean();
+
+        // When: far more concurrent blocking calls than there are connections
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            calls.add(CompletableFuture.runAsync(() -> {
+                if (Thread.currentThread().getName().startsWith("ForkJoinPool.commonPool")) {
+                    ranOnCommonPool.set(true);
+                }
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(5);
+                running.decrementAndGet();
+            }, dbExecutionContext));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        awaitIdle(dbExecutionContext);
+
+        // Then
+        assertThat(ranOnCommonPool).isFalse();
+        assertThat(maxRunning.get()).isBetween(2, POOL_SIZE);
+        Map<String, Object> metrics = dbExecutionContext.metrics();
+        assertThat(metrics).containsEntry("completed", 200L).containsEntry("active", 0).containsEntry("queued", 0);
+        assertThat((Double) metrics.get("avgWaitMillis")).isGreaterThan(0.0);
+    }
+
+    @Test
+    void testVirtualThreads_ConcurrencyCappedByPermits() throws Exception {
+        // Given
+        DatabaseExecutionContext dbExecutionContext = newContext("virtual-threads", 1000);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicBoolean ranOnPlatformThread = new AtomicBoolean();
+
+        // When
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            calls.add(CompletableFuture.runAsync(() -> {
+                if (!Thread.currentThread().isVirtual()) {
+                    ranOnPlatformThread.set(true);
+                }
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(1);
+                running.decrementAndGet();
+            }, dbExecutionContext));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+        awaitIdle(dbExecutionContext);
+
+        // Then
+        assertThat(ranOnPlatformThread).isFalse();
+        assertThat(maxRunning.get()).isBetween(2, POOL_SIZE);
+        assertThat(dbExecutionContext.metrics())
+                .containsEntry("mode", "virtual-threads")
+                .containsEntry("completed", 1000L);
+    }
+
+    @Test
+    void testExecute_RejectsOnceQueueIsFull() throws Exception {
+        // Given
+        DatabaseExecutionContext dbExecutionContext = newContext("dispatcher", 2);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (int i = 0; i < POOL_SIZE + 2; i++) {
+            calls.add(CompletableFuture.runAsync(() -> await(release), dbExecutionContext));
+        }
+
+        // When & Then
+        assertThat(dbExecutionContext.isSaturated()).isTrue();
+        assertThatThrownBy(() -> CompletableFuture.runAsync(() -> {}, dbExecutionContext))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(dbExecutionContext.metrics()).containsEntry("rejected", 1L);
+
+        release.countDown();
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        awaitIdle(dbExecutionContext);
+        assertThat(dbExecutionContext.isSaturated()).isFalse();
+    }
+
+    private DatabaseExecutionContext newContext(String mode, int maxQueue) {
+        Config config = ConfigFactory.parseString(
+                "database.dispatcher {\n"
+                + "  executor = \"thread-pool-executor\"\n"
+                + "  throughput = 1\n"
+                + "  thread-pool-executor.fixed-pool-size = " + POOL_SIZE + "\n"
+                + "}\n"
+                + "database.max-queue = " + maxQueue + "\n"
+                + "database.execution-mode = " + mode)
+                .withFallback(ConfigFactory.defaultReference());
+        actorSystem = ActorSystem.create("database-test", config);
+        return new DatabaseExecutionContext(actorSystem, config);
+    }
+
+    // Futures complete inside the task, just before the context updates its counters
+    private static void awaitIdle(DatabaseExecutionContext dbExecutionContext) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!Integer.valueOf(0).equals(dbExecutionContext.metrics().get("active")) && System.nanoTime() < deadline) {
+            sleep(1);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package services;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import play.db.jpa.JPAApi;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The real persistence unit on an in-memory H2 database of its own, with a
+ * mocked JPAApi answering withTransaction against it the way Play does:
+ * in a transaction, or without one for read-only blocks.
+ */
+final class TestPersistence implements AutoCloseable {
+
+    private final EntityManagerFactory emf;
+
+    TestPersistence(String database, JPAApi jpaApi) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("jakarta.persistence.nonJtaDataSource", dataSource);
+        properties.put("hibernate.generate_statistics", "true");
+        properties.put("hibernate.show_sql", "false");
+        emf = Persistence.createEntityManagerFactory("defaultPersistenceUnit", properties);
+
+        lenient().when(jpaApi.withTransaction(any(Function.class))).thenAnswer(invocation -> {
+            Function<EntityManager, Object> function = invocation.getArgument(0);
+            return inTransaction(function);
+        });
+        lenient().when(jpaApi.withTransaction(eq("default"), eq(true), any(Function.class))).thenAnswer(invocation -> {
+            Function<EntityManager, Object> function = invocation.getArgument(2);
+            return withoutTransaction(function);
+        });
+    }
+
+    Statistics statistics() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    Object inTransaction(Function<EntityManager, Object> function) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Object result = function.apply(em);
+            em.getTransaction().commit();
+            return result;
+        } finally {
+            em.close();
+        }
+    }
+
+    Object withoutTransaction(Function<EntityManager, Object> function) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return function.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        emf.close();
+    }
+}
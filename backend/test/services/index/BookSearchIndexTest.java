@@ -0,0 +1,62 @@
+package services.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import utils.TestDataFactory;
+
+public class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex();
+        index.put(1L, "Why Architecture Matters", "A classic work on the joy of experiencing architecture");
+        index.put(2L, "The Death Penalty", "");
+        index.put(3L, "Qualitative Interviews", "");
+        index.put(4L, "The Great New York Fire of 1776", "Who set the mysterious fire");
+    }
+
+    @Test
+    void testSearch_MatchesTitleAndSubtitleIgnoringCase() {
+        assertThat(index.search("ARCHITECT")).containsExactly(1L);
+        assertThat(index.search("mysterious")).containsExactly(4L);
+        assertThat(index.search("the")).containsExactly(1L, 2L, 4L);
+    }
+
+    @Test
+    void testSearch_VerifiesCandidates() {
+        // Both trigrams of "abcy" occur in book 5, but not the query itself
+        index.put(5L, "abcd xbcy", "");
+
+        assertThat(index.search("abcy")).isEmpty();
+        assertThat(index.search("xbcy")).containsExactly(5L);
+    }
+
+    @Test
+    void testSearch_ShortQueryScansAllBooks() {
+        assertThat(index.search("q")).containsExactly(3L);
+        assertThat(index.search("")).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void testSearch_PagesInIdOrder() {
+        assertThat(index.search("e", 1L, 2)).containsExactly(2L, 3L);
+        assertThat(index.search("e", 3L, 2)).containsExactly(4L);
+    }
+
+    @Test
+    void testUpdateAndDelete_KeepIndexInSync() {
+        index.onUpdated(TestDataFactory.createTestBookDto(2L, "9783110914675", "The Death Penalty", "", 2026, "PENDING"),
+                TestDataFactory.createTestBookDto(2L, "9783110914675", "Capital Punishment", "", 2026, "PENDING"));
+        index.onDeleted(TestDataFactory.createTestBookDto(3L, "9780123456789", "Qualitative Interviews", "", 2026, "PENDING"));
+
+        assertThat(index.search("death")).isEmpty();
+        assertThat(index.search("punish")).containsExactly(2L);
+        assertThat(index.search("interviews")).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+}
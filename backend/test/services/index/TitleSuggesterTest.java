@@ -0,0 +1,75 @@
+package services.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import models.dto.BookSuggestion;
+import utils.TestDataFactory;
+
+public class TitleSuggesterTest {
+
+    private TitleSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        suggester = new TitleSuggester();
+        suggester.put(1L, "The Great New York Fire of 1776");
+        suggester.put(2L, "The Death Penalty");
+        suggester.put(3L, "Qualitative Interviews");
+        suggester.put(4L, "the  great gatsby");
+    }
+
+    @Test
+    void testSuggest_ReturnsTitlesInLexicographicOrder() {
+        assertThat(suggester.suggest("THE ", 10))
+                .extracting(BookSuggestion::getId)
+                .containsExactly(2L, 4L, 1L);
+        assertThat(suggester.suggest("the great", 10))
+                .extracting(BookSuggestion::getTitle)
+                .containsExactly("the  great gatsby", "The Great New York Fire of 1776");
+    }
+
+    @Test
+    void testSuggest_HonorsLimitAndUnknownPrefix() {
+        assertThat(suggester.suggest("the", 1)).extracting(BookSuggestion::getId).containsExactly(2L);
+        assertThat(suggester.suggest("zebra", 10)).isEmpty();
+    }
+
+    @Test
+    void testUpdateAndDelete_PatchTheTrie() {
+        suggester.onUpdated(TestDataFactory.createTestBookDto(2L, "9783110914675", "The Death Penalty", "", 2026, "PENDING"),
+                TestDataFactory.createTestBookDto(2L, "9783110914675", "Capital Punishment", "", 2026, "PENDING"));
+        suggester.onDeleted(TestDataFactory.createTestBookDto(3L, "9780123456789", "Qualitative Interviews", "", 2026, "PENDING"));
+
+        assertThat(suggester.suggest("the d", 10)).isEmpty();
+        assertThat(suggester.suggest("cap", 10)).extracting(BookSuggestion::getTitle).containsExactly("Capital Punishment");
+        assertThat(suggester.suggest("q", 10)).isEmpty();
+        assertThat(suggester.size()).isEqualTo(3);
+    }
+
+    @Test
+    void testSharedPrefixes_SplitAndMergeEdges() {
+        // Given: "the dea" now branches into "l" and "th penalty"
+        suggester.put(5L, "The Deal");
+
+        assertThat(suggester.suggest("the dea", 10)).extracting(BookSuggestion::getId).containsExactly(5L, 2L);
+        assertThat(suggester.suggest("the death", 10)).extracting(BookSuggestion::getId).containsExactly(2L);
+        assertThat(suggester.suggest("the deb", 10)).isEmpty();
+
+        // When: a title ends in the middle of an edge, then the branch it split goes away
+        suggester.put(6L, "The");
+        suggester.onDeleted(TestDataFactory.createTestBookDto(2L, "9783110914675", "The Death Penalty", "", 2026, "PENDING"));
+
+        // Then
+        assertThat(suggester.suggest("th", 10)).extracting(BookSuggestion::getId).containsExactly(6L, 5L, 4L, 1L);
+        assertThat(suggester.suggest("the deal", 10)).extracting(BookSuggestion::getId).containsExactly(5L);
+        assertThat(suggester.suggest("the death", 10)).isEmpty();
+
+        suggester.put(5L, "Deal");
+        assertThat(suggester.suggest("the d", 10)).isEmpty();
+        assertThat(suggester.suggest("de", 10)).extracting(BookSuggestion::getId).containsExactly(5L);
+        assertThat(suggester.suggest("the", 10)).extracting(BookSuggestion::getId).containsExactly(6L, 4L, 1L);
+    }
+}
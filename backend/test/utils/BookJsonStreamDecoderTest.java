@@ -0,0 +1,115 @@
+package utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import exceptions.BookEntryTooLargeException;
+import exceptions.BookInvalidRequestException;
+import models.request.BookCreateRequest;
+
+public class BookJsonStreamDecoderTest {
+
+    private static final long MAX_ENTRY_BYTES = 64 * 1024;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testWrappedArray_SplitAcrossChunks() throws Exception {
+        // Given
+        String body = """
+            {
+                "source": { "name": "catalog", "tags": ["a", "b"] },
+                "books": [
+                    { "isbn": "9780300267662", "title": "Why Architecture Matters", "copyrightYear": "2023", "status": "approved" },
+                    { "isbn": "978-31-10914-67-5", "title": "The Death Penalty", "subtitle": "", "copyrightYear": "2026", "status": "pending" }
+                ],
+                "count": 2
+            }
+            """;
+        BookJsonStreamDecoder decoder = new BookJsonStreamDecoder(mapper, false, MAX_ENTRY_BYTES);
+
+        // When - feed one byte at a time
+        List<BookCreateRequest> books = new ArrayList<>();
+        for (byte b : body.getBytes(StandardCharsets.UTF_8)) {
+            books.addAll(decoder.feed(new byte[] { b }));
+        }
+        books.addAll(decoder.finish());
+
+        // Then
+        assertThat(books).hasSize(2);
+        assertThat(books.get(0).getTitle()).isEqualTo("Why Architecture Matters");
+        assertThat(books.get(0).getCopyrightYear()).isEqualTo(2023);
+        assertThat(books.get(1).getIsbn()).isEqualTo("978-31-10914-67-5");
+    }
+
+    @Test
+    void testNdjson_MalformedEntriesBecomeNull() throws Exception {
+        // Given
+        String body = """
+            {"isbn": "9783110545982", "title": "Qualitative Interviews", "copyrightYear": 2025, "status": "rejected"}
+            42
+            {"isbn": "9780520392314", "title": "A General Theory of Crime", "copyrightYear": "not a year", "status": "approved"}
+            """;
+        BookJsonStreamDecoder decoder = new BookJsonStreamDecoder(mapper, true, MAX_ENTRY_BYTES);
+
+        // When
+        List<BookCreateRequest> books = new ArrayList<>(decoder.feed(body.getBytes(StandardCharsets.UTF_8)));
+        books.addAll(decoder.finish());
+
+        // Then
+        assertThat(books).hasSize(3);
+        assertThat(books.get(0).getTitle()).isEqualTo("Qualitative Interviews");
+        assertThat(books.subList(1, 3)).containsOnlyNulls();
+    }
+
+    @Test
+    void testTruncatedDocument() throws Exception {
+        // Given
+        BookJsonStreamDecoder decoder = new BookJsonStreamDecoder(mapper, false, MAX_ENTRY_BYTES);
+        List<BookCreateRequest> books = decoder.feed("[{\"isbn\": \"9780300267662\"}, {\"isbn\"".getBytes(StandardCharsets.UTF_8));
+
+        // When & Then
+        assertThat(books).hasSize(1);
+        assertThatThrownBy(decoder::finish)
+                .isInstanceOf(BookInvalidRequestException.class)
+                .hasMessage("Unexpected end of input");
+    }
+
+    @Test
+    void testUnexpectedRootValue() throws Exception {
+        // Given
+        BookJsonStreamDecoder decoder = new BookJsonStreamDecoder(mapper, false, MAX_ENTRY_BYTES);
+
+        // When & Then
+        assertThatThrownBy(() -> decoder.feed("\"books\"".getBytes(StandardCharsets.UTF_8)))
+                .isInstanceOf(BookInvalidRequestException.class)
+                .hasMessage("Expected an array of books");
+    }
+
+    @Test
+    void testEntryOverLimit_RefusedWhileStillArriving() throws Exception {
+        // Given
+        BookJsonStreamDecoder decoder = new BookJsonStreamDecoder(mapper, false, 256);
+        List<BookCreateRequest> books = decoder.feed(
+                "[{\"isbn\": \"9780300267662\"}, {\"title\": \"".getBytes(StandardCharsets.UTF_8));
+        byte[] title = "x".repeat(100).getBytes(StandardCharsets.UTF_8);
+
+        // When & Then: refused before the entry, or even its title, is complete
+        assertThat(books).hasSize(1);
+        assertThatThrownBy(() -> {
+            for (int i = 0; i < 10; i++) {
+                decoder.feed(title);
+            }
+        }).isInstanceOf(BookEntryTooLargeException.class)
+                .hasMessage("Book entry exceeds 256 bytes");
+    }
+}
@@ -0,0 +1,29 @@
+package utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+public class IsbnTest {
+
+    @Test
+    void testToIsbn13_StripsHyphensAndSpaces() {
+        assertThat(Isbn.toIsbn13("978-31-10914-67-5")).isEqualTo("9783110914675");
+        assertThat(Isbn.toIsbn13("978 0 306 40615 7")).isEqualTo("9780306406157");
+        assertThat(Isbn.toIsbn13("9783110545982")).isEqualTo("9783110545982");
+    }
+
+    @Test
+    void testToIsbn13_UpconvertsIsbn10() {
+        assertThat(Isbn.toIsbn13("0-306-40615-2")).isEqualTo("9780306406157");
+        assertThat(Isbn.toIsbn13("080442957x")).isEqualTo("9780804429573");
+    }
+
+    @Test
+    void testToIsbn13_RejectsOtherShapes() {
+        assertThat(Isbn.toIsbn13(null)).isNull();
+        assertThat(Isbn.toIsbn13("invalid-isbn")).isNull();
+        assertThat(Isbn.toIsbn13("978-0-1234")).isNull();
+        assertThat(Isbn.toIsbn13("97831109146X5")).isNull();
+    }
+}
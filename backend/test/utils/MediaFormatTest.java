@@ -0,0 +1,62 @@
+package utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import play.libs.Json;
+
+import java.time.Instant;
+import java.util.List;
+
+import models.dto.BookDto;
+
+public class MediaFormatTest {
+
+    @Test
+    void testWrite_JsonMatchesTreeSerialization() {
+        // Given
+        ApiResponse<List<BookDto>> response = ApiResponse.success(List.of(book(1L), book(2L)));
+
+        // When
+        String direct = MediaFormat.JSON.write(response).utf8String();
+
+        // Then: same document as Json.toJson built before, dates and all
+        assertThat(direct).isEqualTo(Json.stringify(Json.toJson(response)));
+        assertThat(direct).doesNotContain("\"error\"");
+    }
+
+    @Test
+    void testWrite_BinaryFormatsDecodeToSameDocument() {
+        // Given
+        ApiResponse<BookDto> response = ApiResponse.success(book(1L));
+
+        for (MediaFormat format : List.of(MediaFormat.CBOR, MediaFormat.SMILE)) {
+            // When
+            JsonNode decoded = format.readTree(format.write(response));
+
+            // Then
+            JsonNode data = decoded.get("data");
+            assertThat(decoded.get("success").asBoolean()).isTrue();
+            assertThat(data.get("id").asLong()).isEqualTo(1L);
+            assertThat(data.get("title").asText()).isEqualTo("Book 1");
+            assertThat(data.get("version").asLong()).isEqualTo(3L);
+            assertThat(data.has("createdAt")).isTrue();
+        }
+    }
+
+    private static BookDto book(Long id) {
+        BookDto book = new BookDto();
+        book.setId(id);
+        book.setIsbn("9780306406157");
+        book.setTitle("Book " + id);
+        book.setSubtitle("Subtitle");
+        book.setCopyrightYear(2023);
+        book.setStatus("PENDING");
+        book.setCreatedAt(Instant.parse("2024-01-02T03:04:05.123456Z"));
+        book.setUpdatedAt(Instant.parse("2024-01-02T03:04:05.123456Z"));
+        book.setVersion(3L);
+        return book;
+    }
+}
@@ -1,6 +1,7 @@
 import { useState, useEffect } from "react";
 import { useNavigate, useParams } from "react-router-dom";
 import { useDispatch } from "react-redux";
+import axios from "axios";
 import { type AppDispatch } from "../../store/store";
 import { BookStatus, type BookFormData } from "../../types/book";
 import { updateBook, addBook } from "../../store/bookSlice";
@@ -124,9 +125,12 @@ const BookForm = () => {
         navigate("/");
       } catch (error) {
         console.error("Error submitting book:", error);
+        const conflict = axios.isAxiosError(error) && error.response?.status === 409;
         setErrors((prev) => ({
           ...prev,
-          submit: "Failed to submit book. Please try again.",
+          submit: conflict
+            ? "This book was changed by someone else. Reload it and try again."
+            : "Failed to submit book. Please try again.",
         }));
       } finally {
         setIsSubmitting(false);
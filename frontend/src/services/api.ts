@@ -28,6 +28,7 @@ export const updateBook = async (book: Book): Promise<Book> => {
     subtitle: book.subtitle,
     copyrightYear: book.copyrightYear,
     status: book.status,
+    version: book.version,
   };
   const response = await axios.patch<ApiResponse<Book>>(
     API_BASE_URL,
@@ -5,6 +5,8 @@ export interface Book {
   subtitle: string;
   copyrightYear: string;
   status: BookStatus;
+  // Version last read; sent back on update so concurrent edits are detected
+  version?: number;
 }
 
 export enum BookStatus {